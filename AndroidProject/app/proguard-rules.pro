@@ -15,3 +15,10 @@
 #-keepclassmembers class fqcn.of.javascript.interface.for.webview {
 #   public *;
 #}
+
+# Verbose logging of the hot paths, see helpers/AppLog. Calls left unguarded are dropped along with
+# their arguments once minified.
+-assumenosideeffects class com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.AppLog {
+    public static void v(java.lang.String, java.lang.String);
+    public static void d(java.lang.String, java.lang.String);
+}
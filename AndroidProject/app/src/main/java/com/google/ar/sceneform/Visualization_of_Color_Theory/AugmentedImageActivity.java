@@ -18,6 +18,8 @@ package com.google.ar.sceneform.Visualization_of_Color_Theory;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Process;
+import android.os.SystemClock;
 import androidx.appcompat.app.AppCompatActivity;
 import android.util.Log;
 import android.view.View;
@@ -27,11 +29,16 @@ import android.widget.Switch;
 
 import com.google.ar.core.AugmentedImage;
 import com.google.ar.core.Frame;
+import com.google.ar.core.Session;
+import com.google.ar.core.TrackingState;
 import com.google.ar.sceneform.FrameTime;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.AppLog;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.FrameTimer;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.Metrics;
 import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.SnackbarHelper;
 import com.google.ar.sceneform.ux.ArFragment;
 
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -55,6 +62,12 @@ public class AugmentedImageActivity extends AppCompatActivity {
         NONE, RED, YELLOW, BLUE
     }
 
+    // Toggles from the UI, done on the next frame with a painting tracked
+    private static final int INTENT_CHANNEL = 1, INTENT_RENDER = 1 << 1;
+    // App code gets a small share of the 16 ms frame
+    private static final long BUDGET_FRAME_NS = 2_000_000;
+    private static final int NUM_FRAMES_SUMMARY = 600; // About every 10 s
+
     private ArFragment arFragment;
     private ImageView fitToScanView;
 
@@ -65,12 +78,22 @@ public class AugmentedImageActivity extends AppCompatActivity {
     private Switch switchYellow;
     private Switch switchBlue;
     private AugmentedImageNode[] nodes;
-    private boolean channelChanged;
-    private boolean renderChanged;
+    private int intentsPending;
+    // Last tracking state seen of each painting, null before it's seen
+    private TrackingState[] statesTracking;
+    private final FrameTimer timerFrame = new FrameTimer(BUDGET_FRAME_NS);
+    private final Metrics.Histogram histogramFrame = Metrics.getInstance().histogram("ar.frame");
+    private final Metrics.Counter counterTransitions = Metrics.getInstance().counter("ar.transitions");
+    private final Metrics.Counter counterIntents = Metrics.getInstance().counter("ar.intents");
+    private final Metrics.Counter counterOverBudget = Metrics.getInstance().counter("ar.frames_over_budget");
+    private MetricsOverlay overlayMetrics;
+    private static boolean isColdStartRecorded; // Once per process
+    private long timeResumeNs; // Since when the first anchor is waited for, 0 once placed
     private STATE_CHANNEL stateChannel;
     private STATE_CHANNEL stateChannelPrev;
     private boolean[] onChannels;
     private int curr_img;
+    private PaintingCatalog catalog;
 
     // Augmented image and its associated center pose anchor, keyed by the augmented image in
     // the database.
@@ -92,16 +115,23 @@ public class AugmentedImageActivity extends AppCompatActivity {
         switchRed = findViewById(R.id.switch_red);
         switchYellow = findViewById(R.id.switch_yellow);
         switchBlue = findViewById(R.id.switch_blue);
-        channelChanged = false;
-        renderChanged = false;
+        intentsPending = 0;
         onChannels = new boolean[3];
         for (int i = 0; i < onChannels.length; i++) {
             onChannels[i] = false;
         }
         stateChannel = STATE_CHANNEL.NONE;
         stateChannelPrev = stateChannel;
-        nodes = new AugmentedImageNode[AugmentedImageNode.NUM_IMAGE];
+        catalog = PaintingCatalog.getInstance(this);
+        statesTracking = new TrackingState[catalog.size()];
+        nodes = new AugmentedImageNode[catalog.size()];
         curr_img = -1; /* can try recognize all image targets */
+
+        overlayMetrics = new MetricsOverlay(this);
+        findViewById(R.id.button_chart).setOnLongClickListener(view -> {
+            overlayMetrics.toggle();
+            return true;
+        });
     }
 
     @Override
@@ -110,12 +140,21 @@ public class AugmentedImageActivity extends AppCompatActivity {
         if (augmentedImageMap.isEmpty()) {
             fitToScanView.setVisibility(View.VISIBLE);
         }
-        channelChanged = false;
-        renderChanged = false;
+        intentsPending = 0;
+        timeResumeNs = augmentedImageMap.isEmpty() ? System.nanoTime() : 0;
+        overlayMetrics.resume();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        overlayMetrics.pause();
     }
 
     /**
      * Registered with the Sceneform Scene object, this method is called at the start of each frame.
+     * Only changes of tracking state and toggles from the UI are acted on, frames with neither do
+     * nothing; poses in between are followed by the anchors.
      *
      * @param frameTime - time since last frame.
      */
@@ -127,76 +166,132 @@ public class AugmentedImageActivity extends AppCompatActivity {
             return;
         }
 
-        Collection<AugmentedImage> updatedAugmentedImages =
-                frame.getUpdatedTrackables(AugmentedImage.class);
-        for (AugmentedImage augmentedImage : updatedAugmentedImages) {
+        long timeStart = System.nanoTime();
+        if (!isColdStartRecorded) {
+            // From the process start to the first camera frame
+            isColdStartRecorded = true;
+            Metrics.getInstance().histogram("ar.cold_start").record(
+                    (SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime()) * 1_000_000);
+        }
+        for (AugmentedImage augmentedImage : frame.getUpdatedTrackables(AugmentedImage.class)) {
             int i = augmentedImage.getIndex();
-            switch (augmentedImage.getTrackingState()) {
-                case PAUSED:
-                    // When an image is in PAUSED state, but the camera is not PAUSED, it has been detected,
-                    // but not yet tracked.
-                    String text = "Detected Painting " + (i+1) + ": " + getPaintingsName(i);
-                    SnackbarHelper.getInstance().showMessage(this, text);
-//                    augmentedImageMap.remove(augmentedImage);
-//                    if (nodes[i] != null) {
-//                        nodes[i].removeNode();
-//                        Log.i(TAG, "Augmented Image node [" + i + "] on PAUSED and removed. ");
-//                    }
-//                    Log.i(TAG, "Augmented Image [" + i + "] on PAUSED and removed. ");
-                    break;
-
-                case TRACKING:
-                    // Have to switch to UI Thread to update View.
-                    fitToScanView.setVisibility(View.GONE);
-                    if (layoutOptions.getVisibility() != View.VISIBLE) {
-                        layoutOptions.setVisibility(View.VISIBLE);
-                    }
-                    // Create a new anchor for newly found images.
-                    if (!augmentedImageMap.containsKey(augmentedImage)) {
-                        nodes[i] = new AugmentedImageNode(this);
-                        Log.i(TAG, "New Augmented Image [" + i + "] renderable created. ");
-                        nodes[i].setImage(augmentedImage, i);
-                        augmentedImageMap.put(augmentedImage, nodes[i]);
-                        arFragment.getArSceneView().getScene().addChild(nodes[i]);
-                    } else { // The node must be present
-                        if (channelChanged) { // Checks every frame, only runs when toggled
-                            nodes[i].setCanvasMaterial(i, onChannels);
-                            Log.i(TAG, "Augmented Image [" + i + "] channel changed. ");
-                        }
-                        if (renderChanged) {
-                            nodes[i].toggleView(switchRenderable.isChecked(), onChannels);
-                            Log.i(TAG, "Augmented Image [" + i + "] render status changed. ");
-                        }
-                    }
-                    curr_img = i;
-                    break;
-
-                case STOPPED:
-                    augmentedImageMap.remove(augmentedImage);
-                    nodes[i].removeNode();
-                    Log.i(TAG, "Augmented Image [" + i + "] on STOPPED and removed. ");
-                    curr_img = -1; /* Start look for new target */
-                    break;
+            TrackingState state = augmentedImage.getTrackingState();
+            if (state != statesTracking[i]) {
+                statesTracking[i] = state;
+                counterTransitions.increment();
+                onTrackingStateChanged(augmentedImage, i, state);
             }
-            if (curr_img != augmentedImage.getIndex()) {
-                augmentedImageMap.remove(augmentedImage);
-                if (nodes[i] != null) {
-                    nodes[i].removeNode();
-                    Log.i(TAG, "Augmented Image node [" + i + "] on globally removed. ");
+        }
+        if (intentsPending != 0 && curr_img != -1 && statesTracking[curr_img] == TrackingState.TRACKING) {
+            doIntents(nodes[curr_img]);
+        }
+        recordFrame(System.nanoTime() - timeStart);
+    }
+
+    private void onTrackingStateChanged(AugmentedImage augmentedImage, int i, TrackingState state) {
+        switch (state) {
+            case PAUSED:
+                // When an image is in PAUSED state, but the camera is not PAUSED, it has been detected,
+                // but not yet tracked.
+                String text = "Detected Painting " + (i+1) + ": " + catalog.get(i).name;
+                SnackbarHelper.getInstance().showMessage(this, text);
+                break;
+
+            case TRACKING:
+                if (curr_img != -1 && curr_img != i) { // One painting shown at a time
+                    removeImage(curr_img);
+                }
+                showImage(augmentedImage, i);
+                break;
+
+            case STOPPED:
+                removeImage(i);
+                Log.i(TAG, "Augmented Image [" + i + "] on STOPPED and removed. ");
+                if (curr_img == i) {
+                    curr_img = -1; /* Start look for new target */
+                    showTracked();
                 }
-                Log.i(TAG, "Augmented Image [" + i + "] on globally removed. ");
+                break;
+        }
+    }
+
+    private void showImage(AugmentedImage augmentedImage, int i) {
+        // Have to switch to UI Thread to update View.
+        fitToScanView.setVisibility(View.GONE);
+        if (layoutOptions.getVisibility() != View.VISIBLE) {
+            layoutOptions.setVisibility(View.VISIBLE);
+        }
+        // Create a new anchor for newly found images.
+        if (!augmentedImageMap.containsKey(augmentedImage)) {
+            nodes[i] = new AugmentedImageNode(this);
+            Log.i(TAG, "New Augmented Image [" + i + "] renderable created. ");
+            nodes[i].setImage(augmentedImage, i);
+            augmentedImageMap.put(augmentedImage, nodes[i]);
+            arFragment.getArSceneView().getScene().addChild(nodes[i]);
+            if (timeResumeNs != 0) {
+                Metrics.getInstance().histogram("ar.first_anchor").recordSince(timeResumeNs);
+                timeResumeNs = 0;
             }
         }
-        if (channelChanged) {
-            channelChanged = false;
+        curr_img = i;
+    }
+
+    // A painting replaced while still tracked has no transition left to show it again by
+    private void showTracked() {
+        Session session = arFragment.getArSceneView().getSession();
+        if (session == null) {
+            return;
         }
-        if (renderChanged) {
-            renderChanged = false;
+        for (AugmentedImage augmentedImage : session.getAllTrackables(AugmentedImage.class)) {
+            int i = augmentedImage.getIndex();
+            if (statesTracking[i] == TrackingState.TRACKING
+                    && augmentedImage.getTrackingState() == TrackingState.TRACKING) {
+                showImage(augmentedImage, i);
+                Log.i(TAG, "Augmented Image [" + i + "] still tracked and shown again. ");
+                return;
+            }
+        }
+    }
+
+    // Out of the scene with its anchor detached, a new node is made if it is tracked again
+    private void removeImage(int i) {
+        if (nodes[i] != null) {
+            augmentedImageMap.values().remove(nodes[i]);
+            nodes[i].detach();
+            nodes[i] = null;
+            Log.i(TAG, "Augmented Image node [" + i + "] removed. ");
+        }
+    }
+
+    private void doIntents(AugmentedImageNode node) {
+        counterIntents.increment();
+        if ((intentsPending & INTENT_CHANNEL) != 0) {
+            node.setCanvasMaterial(curr_img, onChannels);
+            Log.i(TAG, "Augmented Image [" + curr_img + "] channel changed. ");
+        }
+        if ((intentsPending & INTENT_RENDER) != 0) {
+            node.toggleView(switchRenderable.isChecked(), onChannels);
+            Log.i(TAG, "Augmented Image [" + curr_img + "] render status changed. ");
+        }
+        intentsPending = 0;
+    }
+
+    private void recordFrame(long ns) {
+        histogramFrame.record(ns);
+        if (timerFrame.record(ns)) {
+            counterOverBudget.increment();
+            if (AppLog.VERBOSE) {
+                AppLog.d(TAG, "Frame took " + ns / 1000 + " us of app code");
+            }
+        }
+        if (timerFrame.getNumFrames() == NUM_FRAMES_SUMMARY) {
+            Log.i(TAG, "App code per frame: " + timerFrame);
+            timerFrame.reset();
         }
     }
 
     public void toggleChannel(View view) {
-        channelChanged = true;
+        intentsPending |= INTENT_CHANNEL;
         switch (view.getId()) {
             case R.id.switch_red:
                 toggleOnChannels(0);
@@ -215,12 +310,11 @@ public class AugmentedImageActivity extends AppCompatActivity {
     }
 
     public void reset(View view) {
-        augmentedImageMap.clear();
-        for (int i= 0; i < AugmentedImageNode.NUM_IMAGE; i++) {
-            if (nodes[i] != null) {
-                nodes[i].removeNode();
-            }
+        for (int i= 0; i < nodes.length; i++) {
+            removeImage(i);
         }
+        Arrays.fill(statesTracking, null); // Paintings still tracked are placed again
+        timeResumeNs = System.nanoTime();
         Log.i(TAG, "Reset models and augmented image ran. ");
     }
 
@@ -228,13 +322,8 @@ public class AugmentedImageActivity extends AppCompatActivity {
         return stateChannel.ordinal() - 1;
     }
 
-    private String getPaintingsName(int iImage) {
-        String ori= AugmentedImageFragment.NAMES_IMAGE[iImage];
-        return ori.substring(0, ori.length() - 4);
-    }
-
     public void toggleRenderable(View view) {
-        renderChanged = true;
+        intentsPending |= INTENT_RENDER;
     }
 
     public void invokeChart(View view) {
@@ -18,9 +18,9 @@ package com.google.ar.sceneform.Visualization_of_Color_Theory;
 
 import android.app.ActivityManager;
 import android.content.Context;
+import android.content.pm.PackageManager;
 import android.content.res.AssetManager;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.os.Build;
 import android.os.Bundle;
 import androidx.annotation.Nullable;
@@ -32,9 +32,12 @@ import android.view.ViewGroup;
 import com.google.ar.core.AugmentedImageDatabase;
 import com.google.ar.core.Config;
 import com.google.ar.core.Session;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.BitmapCache;
 import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.SnackbarHelper;
 import com.google.ar.sceneform.ux.ArFragment;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -46,12 +49,9 @@ import java.io.OutputStream;
 public class AugmentedImageFragment extends ArFragment {
     private static final String TAG = "AugmentedImageFragment";
     static final String
-            PATH_PROJECT = "D:/UMD/Research/Visualization-of-Color-Theory-2.0/AndroidProject",
-            FOLDER_IMAGES = "images",
-            FOLDER_ASSETS = "app/src/main/assets",
-            PATH_ASSETS = PATH_PROJECT + "/" + FOLDER_ASSETS;
-    static final String[] NAMES_IMAGE = new String[]
-            {"Forest.jpg", "Reflection.jpg", "Still Life.jpg"};
+            FOLDER_DATABASE = "imgdb", // In app-private storage
+            PREFIX_DATABASE = "paintings_",
+            EXTENSION_DATABASE = ".imgdb";
 
     // This is the name of the image in the sample database.  A copy of the image is in the assets
     // directory.  Opening this image on your computer is a good quick way to test the augmented image
@@ -61,9 +61,8 @@ public class AugmentedImageFragment extends ArFragment {
     // This is a pre-created database containing the sample image.
     private static final String SAMPLE_IMAGE_DATABASE = "sample_database.imgdb";
 
-    // Augmented image configuration and rendering.
-    // Load a single image (true) or a pre-generated image database (false).
-    private static final boolean isAddImageToDatabase = true;
+    // Shorter side the images are sampled down to for tracking, ARCore needs at least 300 pixels
+    private static final int SIDE_MIN_TRACKER = 480;
 
     // Do a runtime check for the OpenGL level available at runtime to avoid Sceneform crashing the
     // application.
@@ -116,36 +115,47 @@ public class AugmentedImageFragment extends ArFragment {
             Log.e(TAG, "Context is null, cannot intitialize image database.");
             return false;
         }
-        // There are two ways to configure an AugmentedImageDatabase:
-        // 1. Add Bitmap to DB directly
-        // 2. Load a pre-built AugmentedImageDatabase
-        // Option 2) has
-        // * shorter setup time
-        // * doesn't require images to be packaged in apk.
-        if (isAddImageToDatabase) {
-            Bitmap[] bitmapsAugmentedImage = loadAugmentedImageBitmaps(assetManager, NAMES_IMAGE);
-            for (Bitmap bitmap : bitmapsAugmentedImage) {
+        // Adding bitmaps to the database is slow, so it's done once and the database kept in
+        // app-private storage, named by the catalog and the app's install so a change of either
+        // rebuilds it. The images themselves are only read to build it.
+        PaintingCatalog catalog = PaintingCatalog.getInstance(getContext());
+        String key;
+        try {
+            key = getKeyDatabase(getContext(), catalog);
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.e(TAG, "Exception reading the app's install time.", e);
+            return false;
+        }
+        File dir = new File(getContext().getFilesDir(), FOLDER_DATABASE);
+        File file = new File(dir, PREFIX_DATABASE + key + EXTENSION_DATABASE);
+        augmentedImageDatabase = null;
+        if (file.exists()) {
+            try (InputStream is = new FileInputStream(file)) {
+                augmentedImageDatabase = AugmentedImageDatabase.deserialize(session, is);
+                Log.i(TAG, "Augmented image database loaded from " + file);
+            } catch (IOException | RuntimeException e) { // Also thrown by ARCore on a stale format
+                Log.e(TAG, "Exception loading augmented image database, rebuilding.", e);
+            }
+        }
+        if (augmentedImageDatabase == null) {
+            augmentedImageDatabase = new AugmentedImageDatabase(session);
+            // One bitmap at a time, so memory doesn't grow with the number of paintings
+            for (PaintingCatalog.Painting painting : catalog.getPaintings()) {
+                Bitmap bitmap = loadAugmentedImageBitmap(assetManager, painting.pathImage);
                 if (bitmap == null) {
                     return false;
                 }
+                // The physical size being known improves the initial detection speed. ARCore will
+                // still actively estimate it as the image is viewed from multiple viewpoints.
+                int index = augmentedImageDatabase.addImage(painting.name, bitmap, painting.widthMeters);
+                BitmapCache.getInstance().release(bitmap); // Copied by ARCore
+                if (index != painting.index) { // Paintings are looked up by it
+                    Log.e(TAG, "Painting " + painting.name + " added at " + index);
+                    return false;
+                }
             }
-            augmentedImageDatabase = new AugmentedImageDatabase(session);
-            for (int i = 0; i < NAMES_IMAGE.length; i++) {
-                augmentedImageDatabase.addImage(NAMES_IMAGE[i], bitmapsAugmentedImage[i]);
-            }
-            // If the physical size of the image is known, you can instead use:
-            //     augmentedImageDatabase.addImage("image_name", augmentedImageBitmap, widthInMeters);
-            // This will improve the initial detection speed. ARCore will still actively estimate the
-            // physical size of the image as it is viewed from multiple viewpoints.
-            serializeAugmentedImageDatabase(augmentedImageDatabase, "paintings.imgdb");
-            // This is an alternative way to initlialize an AugmentedImageDatabase instance,
-            // load a pre-existing augmented image database.
-        } else {
-            try (InputStream is = getContext().getAssets().open(SAMPLE_IMAGE_DATABASE)) {
-                augmentedImageDatabase = AugmentedImageDatabase.deserialize(session, is);
-            } catch (IOException e) {
-                Log.e(TAG, "IO exception loading augmented image database.", e);
-                return false;
+            if (serializeAugmentedImageDatabase(augmentedImageDatabase, dir, file)) {
+                Log.i(TAG, "Augmented image database saved to " + file);
             }
         }
         config.setAugmentedImageDatabase(augmentedImageDatabase);
@@ -156,9 +166,10 @@ public class AugmentedImageFragment extends ArFragment {
         return loadAugmentedImageBitmap(assetManager, DEFAULT_IMAGE_NAME);
     }
 
+    // Shared with the rest of the app through BitmapCache, to be released once added
     private Bitmap loadAugmentedImageBitmap(AssetManager assetManager, String nameImage) {
-        try (InputStream is = assetManager.open(nameImage)) {
-            return BitmapFactory.decodeStream(is);
+        try {
+            return BitmapCache.getInstance().acquire(assetManager, nameImage, SIDE_MIN_TRACKER);
         } catch (IOException e) {
             Log.e(TAG, "IO exception loading augmented image bitmap.", e);
         }
@@ -166,25 +177,45 @@ public class AugmentedImageFragment extends ArFragment {
     }
 
 
-    private Bitmap[] loadAugmentedImageBitmaps(AssetManager assetManager, String[] namesImage) {
-        Bitmap[] bitmaps = new Bitmap[namesImage.length];
-        for (int i = 0; i < namesImage.length; i++) {
-            bitmaps[i] = loadAugmentedImageBitmap(
-                    assetManager, FOLDER_IMAGES + "/" + namesImage[i]);
+    // Written to a temporary file first, so an interrupted write is never taken for a database
+    private boolean serializeAugmentedImageDatabase(AugmentedImageDatabase database, File dir,
+                                                    File file) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "Could not create " + dir);
+            return false;
         }
-        return bitmaps;
-    }
-
-    private boolean serializeAugmentedImageDatabase(AugmentedImageDatabase database,
-                                                    String nameDatabase) {
-        try (OutputStream outputStream = new FileOutputStream(
-                PATH_ASSETS + "/" + nameDatabase)) {
+        File fileTemp = new File(dir, file.getName() + ".tmp");
+        try (OutputStream outputStream = new FileOutputStream(fileTemp)) {
             database.serialize(outputStream);
-            return true;
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.e(TAG, "IO exception saving augmented image database.", e);
+            fileTemp.delete();
+            return false;
+        }
+        if (!fileTemp.renameTo(file)) {
+            Log.e(TAG, "Could not rename " + fileTemp + " to " + file);
+            fileTemp.delete();
             return false;
         }
+        // Databases of older paintings are of no more use
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (!f.equals(file) && f.getName().startsWith(PREFIX_DATABASE)) {
+                    f.delete();
+                }
+            }
+        }
+        return true;
     }
 
+    // Assets only change with an install, so the catalog and when the app was installed stand for
+    // the images, without reading them all on each launch
+    private static String getKeyDatabase(Context context, PaintingCatalog catalog)
+            throws PackageManager.NameNotFoundException {
+        long timeInstall = context.getPackageManager()
+                .getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        return catalog.getHash().substring(0, 16) + "_" + Long.toHexString(timeInstall) + "_"
+                + SIDE_MIN_TRACKER;
+    }
 }
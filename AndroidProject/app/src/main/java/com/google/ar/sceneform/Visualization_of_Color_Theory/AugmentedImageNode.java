@@ -17,23 +17,26 @@
 package com.google.ar.sceneform.Visualization_of_Color_Theory;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.util.Log;
 
+import com.google.ar.core.Anchor;
 import com.google.ar.core.AugmentedImage;
+import com.google.ar.core.TrackingState;
 import com.google.ar.sceneform.AnchorNode;
 import com.google.ar.sceneform.Node;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.AppLog;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBConverter;
 import com.google.ar.sceneform.math.Vector3;
 import com.google.ar.sceneform.rendering.Color;
 import com.google.ar.sceneform.rendering.Material;
 import com.google.ar.sceneform.rendering.MaterialFactory;
 import com.google.ar.sceneform.rendering.ModelRenderable;
+import com.google.ar.sceneform.rendering.Renderable;
 import com.google.ar.sceneform.rendering.ShapeFactory;
-import com.google.ar.sceneform.rendering.Texture;
 
-import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -47,6 +50,8 @@ public class AugmentedImageNode extends AnchorNode {
     // The augmented image represented by this node.
     private AugmentedImage image;
     private int iImage;
+    // Parameter of the painting's material, 1 for a channel shown and 0 for hidden
+    private final float[] channels = new float[] {1, 1, 1};
 
     // Models of the 4 corners.  We use completable futures here to simplify
     // the error handling and asynchronous loading.  The loading is started with the
@@ -56,28 +61,19 @@ public class AugmentedImageNode extends AnchorNode {
     private static CompletableFuture<ModelRenderable> lrCorner;
     private static CompletableFuture<ModelRenderable> llCorner;
 
-    static final int NUM_IMAGE = 3;
     private static final int NUM_CHANNEL = 3;
-    private static final int NUM_CHANNELS = 6;
-    private static final int iAll = -1;
-    public static final int iRed = 0, iYellow = 1, iBlue = 2, iGreen = 3, iOrange = 4, iPurple = 5;
-    private static final String
-            FOLDER_IMAGES = AugmentedImageFragment.FOLDER_IMAGES,
-            FOLDER_IMAGES_FILTERED = "filtered_images";
-    private static final String[] NAMES_IMAGE = AugmentedImageFragment.NAMES_IMAGE;
-    private static final String[][] NAMES_IMAGE_CHANNEL = new String[][] {
-            {"Forest_R.png",        "Forest_Y.png",         "Forest_B.png",     "Forest_G.png",        "Forest_O.png",         "Forest_P.png"},
-            {"Reflection_R.png",    "Reflection_Y.png",     "Reflection_B.png", "Reflection_G.png",    "Reflection_O.png",     "Reflection_P.png"},
-            {"Still Life_R.png",    "Still Life_Y.png",     "Still Life_B.png", "Still Life_G.png",    "Still Life_O.png",     "Still Life_P.png"}};
-    private static final float
-            WIDTH_IMAGE = 0.0768F; // Get the ratio right, the actual size displayed will be scaled appropriately
-    private static final float[] HEIGHTS_IMAGE = new float[] {0.0596F, 0.0763F, 0.0622F};
-
-    private static ModelRenderable[] renderablesCanvas;
-    private static Node nodeCanvas;
-    private static Material materialCurr;
-    private static Material[] materialsOri;
-    private static Material[][] materialsChannel;
+    public static final int
+            iRed = RYBConverter.iRed,
+            iYellow = RYBConverter.iYellow,
+            iBlue = RYBConverter.iBlue;
+
+    private final PaintingCatalog catalog;
+    // Canvas of each painting shown so far, to its size. The actual size displayed is scaled to
+    // the image tracked, so only the ratio matters.
+    private static final Map<Integer, ModelRenderable> renderablesCanvas = new HashMap<>();
+    private static CompletableFuture<Material> materialPlaceholder;
+    private Node nodeCanvas;
+    private static CanvasMaterialCache materials;
 
     AugmentedImageNode(Context context) {
         // Upon construction, start loading the models for the corners of the frame.
@@ -100,63 +96,39 @@ public class AugmentedImageNode extends AnchorNode {
                             .build();
         }
 
-        if (renderablesCanvas == null) { // If models not loaded
-            materialsOri = new Material[NUM_IMAGE];
-            materialsChannel = new Material[NUM_IMAGE][NUM_CHANNELS]; // Include secondary
-            renderablesCanvas = new ModelRenderable[NUM_IMAGE];
-            // Renderable built for the shape, material is dummy, will get changed
-            for (int i = 0; i < renderablesCanvas.length; i++) {
-                final int iFinal = i;
-                MaterialFactory.makeTransparentWithColor(context, new Color(0, 0, 255))
-                        .thenAccept(
-                                material -> {
-                                    materialCurr = material;
-                                    renderablesCanvas[iFinal] = ShapeFactory.makeCube(
-                                            new Vector3(WIDTH_IMAGE, 0.0001f, HEIGHTS_IMAGE[iFinal]),
-                                            new Vector3(0f, 0f, 0f), material);
-                                });
-            }
+        catalog = PaintingCatalog.getInstance(context);
+        if (materialPlaceholder == null) { // If models not loaded
+            // Canvases are built for their shape with this material, until the painting's is made
+            materialPlaceholder = MaterialFactory.makeTransparentWithColor(context, new Color(0, 0, 255));
 
-            // Load all possible materials
-            for (int i = 0; i < NAMES_IMAGE.length; i++) {
-                final int iFinal = i;
-                String nameOri = NAMES_IMAGE[i];
-                Texture.builder().setSource(
-                        getBitmapFromAsset(context, FOLDER_IMAGES + "/" + nameOri)).build()
-                        .thenAccept(texture ->
-                            MaterialFactory.makeOpaqueWithTexture(context, texture)
-                                    .thenAccept(
-                                            material ->
-                                                materialsOri[iFinal] = material
-                                            )
-                        );
-                for (int j = 0; j < NAMES_IMAGE_CHANNEL[i].length; j++) {
-                    final int jFinal = j;
-                    String nameChannel = NAMES_IMAGE_CHANNEL[i][j];
-                    Texture.builder().setSource(
-                            getBitmapFromAsset(context, FOLDER_IMAGES_FILTERED + "/" + nameChannel))
-                            .build()
-                            .thenAccept(texture ->
-                                MaterialFactory.makeOpaqueWithTexture(context, texture)
-                                        .thenAccept(
-                                                material ->
-                                                    materialsChannel[iFinal][jFinal] = material
-                                                )
-                            );
-                }
-            }
+            // Materials of the paintings are made when first shown, copying the canvas model's material
+            materials = new CanvasMaterialCache(context, Uri.parse("models/canvas.sfb"), catalog,
+                    CanvasMaterialCache.SIZE_DEFAULT, AugmentedImageNode::resetCanvasMaterial);
+        }
+    }
+
+    // Null until the placeholder material is made
+    private ModelRenderable getRenderableCanvas(int iImage) {
+        ModelRenderable renderable = renderablesCanvas.get(iImage);
+        if (renderable == null && materialPlaceholder.isDone()
+                && !materialPlaceholder.isCompletedExceptionally()) {
+            PaintingCatalog.Painting painting = catalog.get(iImage);
+            renderable = ShapeFactory.makeCube(
+                    new Vector3(painting.widthMeters, 0.0001f, painting.heightMeters),
+                    new Vector3(0f, 0f, 0f), materialPlaceholder.join());
+            renderablesCanvas.put(iImage, renderable);
         }
+        return renderable;
     }
 
-    static Bitmap getBitmapFromAsset(Context context, String uri) {
-        Bitmap bitmap = null;
-        try {
-            bitmap = BitmapFactory.decodeStream(context.getAssets().open(uri));
-        } catch (IOException e) {
-            Log.e(TAG, "Exception loading, file not found at: " + uri);
+    // The painting's material was evicted, its canvas goes back to the placeholder until shown again
+    private static void resetCanvasMaterial(int iImage) {
+        ModelRenderable renderable = renderablesCanvas.get(iImage);
+        if (renderable != null) { // Made only once the placeholder is
+            renderable.setMaterial(materialPlaceholder.join());
         }
-        return bitmap;
     }
+
     /**
      * Called when the AugmentedImage is detected and should be rendered. A Sceneform node tree is
      * created based on an Anchor created from the image. The corners are then positioned based on the
@@ -169,8 +141,9 @@ public class AugmentedImageNode extends AnchorNode {
         this.iImage = iImage;
 
         // If any of the models are not loaded, then recurse when all are loaded.
-        if (!ulCorner.isDone() || !urCorner.isDone() || !llCorner.isDone() || !lrCorner.isDone()) {
-            CompletableFuture.allOf(ulCorner, urCorner, llCorner, lrCorner)
+        if (!ulCorner.isDone() || !urCorner.isDone() || !llCorner.isDone() || !lrCorner.isDone()
+                || !materialPlaceholder.isDone()) {
+            CompletableFuture.allOf(ulCorner, urCorner, llCorner, lrCorner, materialPlaceholder)
                     .thenAccept((Void aVoid) -> setImage(image, iImage))
                     .exceptionally(
                             throwable -> {
@@ -183,13 +156,21 @@ public class AugmentedImageNode extends AnchorNode {
     }
 
     private void initNode(AugmentedImage image, int iImage) {
+        Anchor anchorPrev = getAnchor();
         setAnchor(image.createAnchor(image.getCenterPose()));
-        float scaleWidth = image.getExtentX() / WIDTH_IMAGE;
-        float scaleHeight = image.getExtentZ() / HEIGHTS_IMAGE[iImage];
+        if (anchorPrev != null) { // ARCore keeps updating an anchor until detached
+            anchorPrev.detach();
+        }
+        if (nodeCanvas != null) {
+            nodeCanvas.setParent(null);
+        }
+        PaintingCatalog.Painting painting = catalog.get(iImage);
+        float scaleWidth = image.getExtentX() / painting.widthMeters;
+        float scaleHeight = image.getExtentZ() / painting.heightMeters;
 
         nodeCanvas = new Node();
         nodeCanvas.setParent(this);
-        nodeCanvas.setRenderable(renderablesCanvas[iImage]);
+        nodeCanvas.setRenderable(getRenderableCanvas(iImage));
         nodeCanvas.setLocalPosition(new Vector3(0, 0.0001f, 0));
         nodeCanvas.setLocalScale(new Vector3(scaleWidth, 1f, scaleHeight));
         setCanvasMaterial(iImage);
@@ -197,11 +178,16 @@ public class AugmentedImageNode extends AnchorNode {
 
     void toggleView(boolean on, boolean[] onChannels) {
         if (on) {
-            // Center pose is lost when set parent to null
-            initNode(image, iImage);
+            Anchor anchor = getAnchor();
+            if (anchor == null || anchor.getTrackingState() != TrackingState.TRACKING) {
+                // Center pose is lost when set parent to null
+                initNode(image, iImage);
+                Log.i(TAG, "Resume rendering. New anchor set");
+            } else { // Still tracked, the canvas keeps its place relative to the anchor
+                nodeCanvas.setParent(this);
+                Log.i(TAG, "Resume rendering on the same anchor");
+            }
             setCanvasMaterial(iImage, onChannels);
-            Log.i(TAG, "Resume rendering. New anchor set");
-            nodeCanvas.setParent(this);
         } else {
             removeNode();
         }
@@ -211,66 +197,50 @@ public class AugmentedImageNode extends AnchorNode {
         nodeCanvas.setParent(null);
     }
 
-    private void setCanvasMaterial(int iImage) {
-        if (nodeCanvas.getRenderable() != null) {
-            setCanvasMaterial(materialsOri[iImage]);
+    /** Takes the node out of the scene for good, ARCore stops updating its anchor. */
+    void detach() {
+        removeNode();
+        setParent(null);
+        Anchor anchor = getAnchor();
+        if (anchor != null) {
+            setAnchor(null);
+            anchor.detach();
         }
     }
 
-    void setCanvasMaterial(int iImage, int iChannel) { // Valid indices -1 to 2
-        if (nodeCanvas.getRenderable() != null) {
-            if (iChannel == iAll) { //For channelState = None passed in
-                setCanvasMaterial(iImage);
-            } else {
-                setCanvasMaterial(materialsChannel[iImage][iChannel]);
-            }
-        }
+    private void setCanvasMaterial(int iImage) {
+        setCanvasMaterial(iImage, new boolean[NUM_CHANNEL]);
     }
 
+    /**
+     * Shows the painting with only the channels on, or all of them with none on. A change of
+     * channels only updates a parameter of the painting's material.
+     */
     void setCanvasMaterial(int iImage, boolean[] onChannels) {
-        int iChannel = getChannelsIndex(onChannels);
-        setCanvasMaterial(iImage, iChannel);
-    }
-
-    private int getChannelsIndex(boolean[] onChannels) {
-        if (onChannels[iRed]) {
-            if (onChannels[iYellow]) {
-                if (onChannels[iBlue]) {
-                    return iAll;
-                } else {
-                    return iOrange;
-                }
-            } else {
-                if (onChannels[iBlue]) {
-                    return iPurple;
-                } else {
-                    return iRed;
-                }
-            }
-        } else {
-            if (onChannels[iYellow]) {
-                if (onChannels[iBlue]) {
-                    return iGreen;
-                } else {
-                    return iYellow;
-                }
-            } else {
-                if (onChannels[iBlue]) {
-                    return iBlue;
-                } else {
-                    return iAll;
-                }
+        if (nodeCanvas.getRenderable() != null) {
+            boolean onAny = onChannels[iRed] || onChannels[iYellow] || onChannels[iBlue];
+            for (int i = 0; i < NUM_CHANNEL; i++) {
+                channels[i] = !onAny || onChannels[i] ? 1 : 0;
             }
+            // Runs right away if already made, otherwise keeps the placeholder until then
+            materials.get(iImage).thenAccept(material -> {
+                material.setFloat3("channels", channels[iRed], channels[iYellow], channels[iBlue]);
+                setCanvasMaterial(material);
+            });
         }
     }
 
     private void setCanvasMaterial(Material material) {
-        Log.i(TAG, "setCanvasMaterial(Material) called. materialCurr= " + materialCurr
-                + "; material= " + material);
-        // For efficiency, not setting it to the same thing if aliased
-        if (nodeCanvas.getRenderable() != null && materialCurr != material) {
-            nodeCanvas.getRenderable().setMaterial(material);
-            Log.i(TAG, "Material changed .");
+        Renderable renderable = nodeCanvas.getRenderable();
+        if (AppLog.VERBOSE) {
+            AppLog.d(TAG, "setCanvasMaterial(Material) called. Current= "
+                    + (renderable != null ? renderable.getMaterial() : null) + "; material= " + material);
+        }
+        // The renderable is shared by the nodes of the painting, so it is what holds the material.
+        // Toggling channels only changes a parameter, so the material is most often the same.
+        if (renderable != null && renderable.getMaterial() != material) {
+            renderable.setMaterial(material);
+            AppLog.d(TAG, "Material changed .");
         }
     }
 
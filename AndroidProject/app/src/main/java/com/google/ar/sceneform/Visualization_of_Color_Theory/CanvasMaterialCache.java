@@ -0,0 +1,135 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.BitmapCache;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.Metrics;
+import com.google.ar.sceneform.rendering.Material;
+import com.google.ar.sceneform.rendering.ModelRenderable;
+import com.google.ar.sceneform.rendering.Texture;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+
+/**
+ * Materials of the paintings, made the first time they are asked for. Each is a copy of the RYB
+ * channels material (sampledata/materials/ryb_channels.mat) with the painting as its texture, so
+ * the channels shown are a parameter of it. Only the most recently used are kept: an evicted
+ * material is handed to the listener to take off whatever it is set on, so nothing holds it or its
+ * texture and Sceneform can release them. To be used from the UI thread.
+ */
+@SuppressWarnings({"AndroidApiChecker"})
+class CanvasMaterialCache {
+    private static final String TAG = "CanvasMaterialCache";
+
+    static final int SIZE_DEFAULT = 2; // The one shown and the last one before it
+    // Scans far larger than that are sampled down for the texture, so they are never decoded whole
+    private static final int SIDE_MIN_TEXTURE = 1024;
+
+    private final Context context;
+    private final PaintingCatalog catalog;
+    private final int size;
+    // Material of the model the shader is compiled into, copied for each painting
+    private final CompletableFuture<Material> materialTemplate;
+    private final LinkedHashMap<Integer, CompletableFuture<Material>> materials;
+    private final IntConsumer onEvicted; // Given the index of the painting
+    private final Handler handlerMain = new Handler(Looper.getMainLooper());
+    private final Metrics.Counter counterHits = Metrics.getInstance().counter("material.hits");
+    private final Metrics.Counter counterMisses = Metrics.getInstance().counter("material.misses");
+    private final Metrics.Counter counterEvictions = Metrics.getInstance().counter("material.evictions");
+    // From the miss to the material made, decode and texture upload included
+    private final Metrics.Histogram histogramLoad = Metrics.getInstance().histogram("material.load");
+
+    /**
+     * @param uriModel model built with the RYB channels material, only its material is used
+     * @param onEvicted called with the index of a painting whose material was evicted
+     */
+    CanvasMaterialCache(Context context, Uri uriModel, PaintingCatalog catalog, int size,
+                        IntConsumer onEvicted) {
+        this.context = context.getApplicationContext(); // Outlives the activity
+        this.catalog = catalog;
+        this.size = size;
+        this.onEvicted = onEvicted;
+        materialTemplate = ModelRenderable.builder()
+                .setSource(this.context, uriModel)
+                .build()
+                .thenApply(ModelRenderable::getMaterial);
+        materials = new LinkedHashMap<Integer, CompletableFuture<Material>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<Material>> eldest) {
+                if (size() <= CanvasMaterialCache.this.size) {
+                    return false;
+                }
+                // One still being made is never set on anything
+                eldest.getValue().cancel(false);
+                counterEvictions.increment();
+                CanvasMaterialCache.this.onEvicted.accept(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Material of a painting, completes on the UI thread. Started on the first call, or again if the
+     * last attempt failed.
+     */
+    CompletableFuture<Material> get(int iImage) {
+        CompletableFuture<Material> future = materials.get(iImage);
+        if (future == null || future.isCompletedExceptionally()) {
+            counterMisses.increment();
+            long timeStart = System.nanoTime();
+            String path = catalog.get(iImage).pathImage;
+            future = CompletableFuture
+                    .supplyAsync(() -> {
+                        try {
+                            return BitmapCache.getInstance().acquire(context.getAssets(), path,
+                                    SIDE_MIN_TEXTURE);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .thenComposeAsync(bitmap -> {
+                        CompletableFuture<Texture> texture = Texture.builder()
+                                .setSource(bitmap)
+                                .setUsage(Texture.Usage.DATA) // Sampled as stored, the material converts
+                                .build();
+                        // Copied into the texture once built
+                        texture.whenComplete((t, throwable) -> BitmapCache.getInstance().release(bitmap));
+                        return texture;
+                    }, handlerMain::post)
+                    .thenCombine(materialTemplate, (texture, template) -> {
+                        Material material = template.makeCopy();
+                        material.setTexture("painting", texture);
+                        histogramLoad.recordSince(timeStart);
+                        return material;
+                    });
+            future.exceptionally(throwable -> {
+                if (!(throwable instanceof CancellationException)) { // Not evicted
+                    Log.e(TAG, "Exception making material of image " + iImage, throwable);
+                }
+                return null;
+            });
+            materials.put(iImage, future);
+        } else {
+            counterHits.increment();
+        }
+        return future;
+    }
+
+    void clear() {
+        for (Map.Entry<Integer, CompletableFuture<Material>> entry : materials.entrySet()) {
+            entry.getValue().cancel(false);
+            onEvicted.accept(entry.getKey());
+        }
+        materials.clear();
+    }
+}
@@ -1,5 +1,7 @@
 package com.google.ar.sceneform.Visualization_of_Color_Theory;
 
+import android.app.ActivityManager;
+import android.content.res.AssetManager;
 import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.DashPathEffect;
@@ -8,7 +10,11 @@ import android.media.Image;
 import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.appcompat.app.AppCompatActivity;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
 import android.util.Log;
+import android.view.MotionEvent;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.RadioGroup;
@@ -21,37 +27,83 @@ import com.github.mikephil.charting.components.Legend;
 import com.github.mikephil.charting.components.LimitLine;
 import com.github.mikephil.charting.components.XAxis;
 import com.github.mikephil.charting.components.YAxis;
-import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.formatter.IFillFormatter;
 import com.github.mikephil.charting.interfaces.dataprovider.LineDataProvider;
 import com.github.mikephil.charting.interfaces.datasets.ILineDataSet;
+import com.github.mikephil.charting.listener.ChartTouchListener;
+import com.github.mikephil.charting.listener.OnChartGestureListener;
 import com.github.mikephil.charting.utils.Utils;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.AppLog;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.BitmapCache;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ColorConverter;
 import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ImageChannelDataPoint;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.LatestRequestLoader;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.LineEntries;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.LineProfilePyramid;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.MappedRYBPlanes;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.Metrics;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.BulkRYBConverter;
 import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.MyMarkerView;
-
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBPlanes;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBPlanesCache;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBPlanesStore;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBLut;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBStatistics;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RegionPixelSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBarChangeListener  {
     private static String TAG = "Chart";
-    private static String[] names_painting = {"Parisian Boulevard", "Ship Hull", "Still Life"};
 
     private static final int
                         iRed = AugmentedImageNode.iRed,
                         iYellow = AugmentedImageNode.iYellow,
-                        iBlue = AugmentedImageNode.iBlue;
-
-    private static final String
-            FOLDER_IMAGES = AugmentedImageFragment.FOLDER_IMAGES;
-    private static final String[] NAMES_IMAGE = AugmentedImageFragment.NAMES_IMAGE;
+                        iBlue = AugmentedImageNode.iBlue,
+                        iAll = -1; // All channels overlaid
+
+    private static final String FOLDER_PLANES = "planes"; // In the cache dir
+    // Paintings are converted whole only if all that takes at most this share of the heap, larger
+    // scans are converted a tile at a time into a file and read from its memory map
+    private static final int SHARE_HEAP_CONVERT = 2;
+    // Held at once converting whole: the ARGB_8888 bitmap, its pixels copied out to be converted,
+    // the RYB planes and their summed-area tables of int sums
+    private static final int BYTES_PIXEL_CONVERT = 4 + 4 + RYBPlanes.NUM_CHANNEL + 4 * RYBPlanes.NUM_CHANNEL;
+    private static final int SIDE_TILE = 512;
+    // Pixels are converted by lookup table once it is mapped, identical to converting directly; on
+    // low RAM devices by a 565 one of 256 KB instead of 64 MB, off by up to 30 levels. False to
+    // always convert directly
+    private static final boolean IS_CONVERTED_BY_LUT = true;
+
+    private static volatile CompletableFuture<ColorConverter> futureLut; // Once per process
 
     private int curr_img;
+    private PaintingCatalog.Painting currPaintingEntry;
 
     TextView namePainting;
-    private Bitmap currPainting;
+    private Bitmap currPainting; // Null if tiled
+    private int widthPainting, heightPainting;
+    private boolean isTiled;
+    private volatile RYBPlanes currPlanes; // Null until converted in the background
+    private volatile MappedRYBPlanes currPlanesMapped; // Instead of the two above if tiled
     private ImageChannelDataPoint.Line_State currLineState;
     private int currChannel;
+    // Histograms of the whole painting shown instead of a line profile, with its heatmap
+    private boolean isStatisticsShown;
+    private final Bitmap[] bitmapsHeatmap = new Bitmap[RYBPlanes.NUM_CHANNEL + 1]; // Last one all
 
     private RadioGroup radioGroupState;
     private RadioGroup radioGroupChannel;
@@ -61,37 +113,105 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
     private SeekBar seekBarLineNo, seekBarUnit;
     private TextView tvX, tvY;
 
+    // Data points are computed off the UI thread, only for the latest slider position
+    private ExecutorService executorData;
+    private LatestRequestLoader<DataRequest, DataPoints> loaderData;
+
+    // One data set per channel, all loaded together, so switching channels needs no new pixel work.
+    // Reused across updates, so dragging a slider doesn't allocate entries or drawables.
+    private final LineEntries[] entriesChannels =
+            new LineEntries[] {new LineEntries(), new LineEntries(), new LineEntries()};
+    private Drawable[] drawablesFill; // Indexed by channel
+    private int[] colorsChannel; // Indexed by channel
+
+    // At full detail, unit of 0 or 1, the chart only gets about a point per pixel of what is visible
+    private LineProfilePyramid[] pyramidsShown; // Null when segmented
+    private float[] xsDetail = new float[0];
+    private int[] ysDetail = new int[0];
+
+    private MetricsOverlay overlayMetrics;
+    // From the slider moved to the chart updated with its points, skipped requests not included
+    private final Metrics.Histogram histogramSlider = Metrics.getInstance().histogram("chart.slider");
+    private final Metrics.Histogram histogramLoad = Metrics.getInstance().histogram("chart.load");
+    private final Metrics.Counter counterRequests = Metrics.getInstance().counter("chart.requests");
+
+    private static class DataRequest {
+        final ImageChannelDataPoint.Line_State lineState;
+        final int noLine, unit;
+        final long timeSubmitNs = System.nanoTime(); // For the latency to the chart updated
+
+        DataRequest(ImageChannelDataPoint.Line_State lineState, int noLine, int unit) {
+            this.lineState = lineState;
+            this.noLine = noLine;
+            this.unit = unit;
+        }
+    }
+
+    private static class DataPoints {
+        final int[][] values; // Segmented, null at full detail
+        final LineProfilePyramid[] pyramids; // Full detail, null when segmented
+
+        DataPoints(int[][] values, LineProfilePyramid[] pyramids) {
+            this.values = values;
+            this.pyramids = pyramids;
+        }
+    }
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_chart);
+        loadLut(getCacheDir(), getSystemService(ActivityManager.class).isLowRamDevice()
+                ? RYBLut.Precision.QUANTIZED_565 : RYBLut.Precision.FULL);
+        executorData = Executors.newSingleThreadExecutor();
+        loaderData = new LatestRequestLoader<>(executorData, new Handler(Looper.getMainLooper())::post,
+                this::loadDataPoints, this::onDataPointsLoaded, this::onDataPointsFailed);
+        drawablesFill = new Drawable[] {getDrawable(R.drawable.fade_red),
+                getDrawable(R.drawable.fade_yellow), getDrawable(R.drawable.fade_blue)};
+        colorsChannel = new int[] {getColor(R.color.red), getColor(R.color.yellow), getColor(R.color.blue)};
         namePainting = findViewById(R.id.namePainting);
+        overlayMetrics = new MetricsOverlay(this);
+        namePainting.setOnLongClickListener(view -> {
+            overlayMetrics.toggle();
+            return true;
+        });
         ConstraintLayout layout = findViewById(R.id.layoutChart);
 
         Bundle extras = getIntent().getExtras();
         if (extras != null) {
             curr_img = extras.getInt(AugmentedImageActivity.EXTRA_I_PAINTING, -1);
         }
+        currPaintingEntry = PaintingCatalog.getInstance(this).get(curr_img);
         setText(curr_img);
         namePainting.setVisibility(View.VISIBLE);
-        currPainting = AugmentedImageNode.getBitmapFromAsset(this,
-                FOLDER_IMAGES + "/" + NAMES_IMAGE[curr_img]);
-        Log.i(TAG, "Painting's height:" + currPainting.getHeight() + "; width: " + currPainting.getWidth());
+        String path = currPaintingEntry.pathImage;
+        try {
+            int[] size = BitmapCache.getInstance().getSize(getAssets(), path);
+            widthPainting = size[0];
+            heightPainting = size[1];
+            isTiled = (long) widthPainting * heightPainting * BYTES_PIXEL_CONVERT
+                    > Runtime.getRuntime().maxMemory() / SHARE_HEAP_CONVERT;
+            // Shared with the AR view when it decoded the painting whole, for shorter sides under
+            // twice CanvasMaterialCache.SIDE_MIN_TEXTURE; it samples larger ones down for its texture
+            if (!isTiled) {
+                currPainting = BitmapCache.getInstance().acquire(getAssets(), path);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Exception loading painting", e);
+            finish();
+            return;
+        }
+        Log.i(TAG, "Painting's height:" + heightPainting + "; width: " + widthPainting
+                + (isTiled ? ", tiled" : ""));
         painting = findViewById(R.id.painting);
 //        painting.setImageBitmap(currPainting);
-        switch (curr_img) {
-            case 0:
-                painting.setBackgroundResource(R.drawable.forest);
-                layout.setBackgroundResource(R.drawable.forest_blurred);
-                break;
-            case 1:
-                painting.setBackgroundResource(R.drawable.reflection);
-                layout.setBackgroundResource(R.drawable.reflection_blurred);
-                break;
-            case 2:
-                painting.setBackgroundResource(R.drawable.still_life);
-                layout.setBackgroundResource(R.drawable.still_life_blurred);
-                break;
+        int idDrawable = currPaintingEntry.getDrawable(this);
+        if (idDrawable != 0) {
+            painting.setBackgroundResource(idDrawable);
+        }
+        int idBackground = currPaintingEntry.getDrawableBackground(this);
+        if (idBackground != 0) {
+            layout.setBackgroundResource(idBackground);
         }
 
         currLineState = ImageChannelDataPoint.Line_State.ROW;
@@ -110,10 +230,17 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
                     case R.id.radioCol:
                         iState = 1;
                         break;
+                    case R.id.radioHistogram:
+                        isStatisticsShown = true;
+                        showStatistics();
+                        return;
+                }
+                if (isStatisticsShown) {
+                    hideStatistics();
                 }
                 currLineState = ImageChannelDataPoint.Line_State.values()[iState];
                 setSeekBarLineNoMax(currLineState);
-                setData(currLineState, seekBarLineNo.getProgress(), currChannel, seekBarUnit.getProgress());
+                setData(currLineState, seekBarLineNo.getProgress(), seekBarUnit.getProgress());
             }
         });
 
@@ -133,10 +260,15 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
                     case R.id.radioBlue:
                         iChannel = 2;
                         break;
+                    case R.id.radioAll:
+                        iChannel = iAll;
+                        break;
                 }
                 currChannel = iChannel;
-                chart.invalidate(); // Redraw
-                setData(currLineState, seekBarLineNo.getProgress(), currChannel, seekBarUnit.getProgress());
+                showChannels(); // Already loaded with the line
+                if (isStatisticsShown) {
+                    showHeatmap();
+                }
             }
         });
 
@@ -144,9 +276,7 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
         tvY = findViewById(R.id.tvYMax);
 
         seekBarLineNo = findViewById(R.id.seekBar1);
-        if (currPainting != null) {
-            seekBarLineNo.setMax(currPainting.getHeight() - 1); // For row number initialized
-        }
+        seekBarLineNo.setMax(heightPainting - 1); // For row number initialized
         seekBarLineNo.setOnSeekBarChangeListener(this);
 
         seekBarUnit = findViewById(R.id.seekBar2);
@@ -185,6 +315,39 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
 
             // force pinch zoom along both axis
             chart.setPinchZoom(true);
+
+            // refine or coarsen the level of detail as the visible range changes
+            chart.setOnChartGestureListener(new OnChartGestureListener() {
+                @Override
+                public void onChartGestureStart(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {}
+
+                @Override
+                public void onChartGestureEnd(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+                    updateLevelOfDetail();
+                }
+
+                @Override
+                public void onChartLongPressed(MotionEvent me) {}
+
+                @Override
+                public void onChartDoubleTapped(MotionEvent me) {}
+
+                @Override
+                public void onChartSingleTapped(MotionEvent me) {}
+
+                @Override
+                public void onChartFling(MotionEvent me1, MotionEvent me2, float velocityX, float velocityY) {}
+
+                @Override
+                public void onChartScale(MotionEvent me, float scaleX, float scaleY) {
+                    updateLevelOfDetail();
+                }
+
+                @Override
+                public void onChartTranslate(MotionEvent me, float dX, float dY) {
+                    updateLevelOfDetail();
+                }
+            });
         }
 
         XAxis xAxis;
@@ -243,10 +406,13 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
         // add data
         seekBarLineNo.setProgress(0);
         seekBarUnit.setProgress(25);
-        setData(currLineState, seekBarLineNo.getProgress(), currChannel, seekBarUnit.getProgress());
-
-        // draw points over time
-        chart.animateX(1500);
+        setData(currLineState, seekBarLineNo.getProgress(), seekBarUnit.getProgress());
+        if (isTiled) {
+            findViewById(R.id.radioHistogram).setEnabled(false); // Needs the planes in memory
+            loadPlanesMapped();
+        } else {
+            loadPlanes();
+        }
 
         // get the legend (only possible after setting data)
         Legend l = chart.getLegend();
@@ -255,9 +421,176 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
         l.setForm(Legend.LegendForm.LINE);
     }
 
+    // Converts the painting once, later updates average segments out of its summed-area table
+    private void loadPlanes() {
+        final String path = currPaintingEntry.pathImage;
+        final AssetManager assets = getAssets();
+        final File dirPlanes = new File(getCacheDir(), FOLDER_PLANES);
+        final Bitmap painting;
+        try { // Held until converted, as the load may outlive the activity
+            painting = BitmapCache.getInstance().acquire(assets, path);
+        } catch (IOException e) {
+            Log.e(TAG, "Exception loading painting", e);
+            return;
+        }
+        CompletableFuture<RYBPlanes> future = RYBPlanesCache.getInstance()
+                .get(currPaintingEntry.name, () -> getPlanes(assets, path, dirPlanes, painting));
+        future.whenComplete((planes, throwable) -> BitmapCache.getInstance().release(painting));
+        future.thenAccept(planes -> runOnUiThread(() -> {
+                    if (isDestroyed()) {
+                        return;
+                    }
+                    currPlanes = planes;
+                    if (isStatisticsShown) { // Chosen while converting
+                        showStatistics();
+                    } else {
+                        setData(currLineState, seekBarLineNo.getProgress(), seekBarUnit.getProgress());
+                    }
+                }))
+                .exceptionally(throwable -> {
+                    Log.e(TAG, "Exception converting painting to RYB", throwable);
+                    return null;
+                });
+    }
+
+    // Read back if converted on an earlier launch, keyed by the image file, otherwise converted
+    // and stored. Called off the UI thread.
+    private static RYBPlanes getPlanes(AssetManager assets, String path, File dir, Bitmap painting) {
+        RYBPlanesStore store = new RYBPlanesStore(dir);
+        String key = null;
+        RYBPlanes planes = null;
+        try (InputStream is = assets.open(path)) {
+            key = RYBPlanesStore.getHash(is);
+            planes = store.read(key);
+        } catch (IOException e) {
+            Log.e(TAG, "Exception reading stored planes of " + path, e);
+        }
+        if (planes == null) {
+            planes = ImageChannelDataPoint.getPlanes(painting,
+                    new BulkRYBConverter(ForkJoinPool.commonPool(), getConverter()));
+            planes.getIntegralImage(); // Built here, off the UI thread, and stored with the planes
+            if (key != null) {
+                try {
+                    store.write(key, planes);
+                } catch (IOException e) {
+                    Log.e(TAG, "Exception storing planes of " + path, e);
+                }
+            }
+        }
+        planes.getIntegralImage(); // In case stored without
+        planes.getStatistics(); // Also off the UI thread, and before its size is counted by the cache
+        return planes;
+    }
+
+    // Converted a tile at a time into a file on the first launch, only mapped on later ones
+    private void loadPlanesMapped() {
+        final String path = currPaintingEntry.pathImage;
+        final AssetManager assets = getAssets();
+        final File dirPlanes = new File(getCacheDir(), FOLDER_PLANES);
+        CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return getPlanesMapped(assets, path, dirPlanes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executorData) // Interrupted on destroy
+                .thenAccept(planes -> runOnUiThread(() -> {
+                    if (isDestroyed()) {
+                        return;
+                    }
+                    currPlanesMapped = planes;
+                    setData(currLineState, seekBarLineNo.getProgress(), seekBarUnit.getProgress());
+                }))
+                .exceptionally(throwable -> {
+                    Log.e(TAG, "Exception converting painting to RYB by tiles", throwable);
+                    return null;
+                });
+    }
+
+    // Called off the UI thread
+    private static MappedRYBPlanes getPlanesMapped(AssetManager assets, String path, File dir)
+            throws IOException {
+        RYBPlanesStore store = new RYBPlanesStore(dir);
+        String key;
+        try (InputStream is = assets.open(path)) {
+            key = RYBPlanesStore.getHash(is);
+        }
+        MappedRYBPlanes planes = store.mapTiled(key);
+        if (planes == null) {
+            try (InputStream is = assets.open(path);
+                 RegionPixelSource source = new RegionPixelSource(is)) {
+                store.writeTiled(key, source, SIDE_TILE, getConverter());
+            }
+            planes = store.mapTiled(key);
+            if (planes == null) {
+                throw new IOException("Could not map the planes of " + path);
+            }
+        }
+        return planes;
+    }
+
+    // Built into the dir on the first launch, which can take seconds, only mapped on later ones.
+    // Built on a thread of its own at background priority, the conversion of the painting shown
+    // keeps the common pool to itself meanwhile
+    private static synchronized void loadLut(File dir, RYBLut.Precision precision) {
+        if (!IS_CONVERTED_BY_LUT || futureLut != null) {
+            return;
+        }
+        futureLut = CompletableFuture.supplyAsync(() -> {
+            try {
+                return RYBLut.load(dir, precision);
+            } catch (IOException e) {
+                Log.e(TAG, "Exception loading the RYB lookup table", e);
+                return ColorConverter.DIRECT;
+            }
+        }, runnable -> new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            runnable.run();
+        }, "RYBLut").start());
+    }
+
+    // The lookup table if mapped by now, otherwise the direct conversion
+    private static ColorConverter getConverter() {
+        CompletableFuture<ColorConverter> future = futureLut;
+        return future == null ? ColorConverter.DIRECT : future.getNow(ColorConverter.DIRECT);
+    }
+
     private void setSeekBarLineNoMax(ImageChannelDataPoint.Line_State state) {
         seekBarLineNo.setMax(state == ImageChannelDataPoint.Line_State.ROW ?
-                                currPainting.getHeight() - 1 : currPainting.getWidth() - 1);
+                                heightPainting - 1 : widthPainting - 1);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        overlayMetrics.resume();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        overlayMetrics.pause();
+    }
+
+    @Override
+    protected void onDestroy() {
+        loaderData.cancel();
+        executorData.shutdownNow();
+        if (currPainting != null) {
+            final Bitmap painting = currPainting;
+            // Given back once no load still reads it, as its memory may then be reused
+            CompletableFuture.runAsync(() -> {
+                try {
+                    executorData.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                BitmapCache.getInstance().release(painting);
+            });
+        }
+        super.onDestroy();
     }
 
     public void onBackPressed() { // Go back to previous activity
@@ -265,7 +598,7 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
     }
 
     private void setText(int curr_img) {
-        namePainting.setText("Painting " + (curr_img+1) + ": " + names_painting[curr_img]);
+        namePainting.setText("Painting " + (curr_img+1) + ": " + currPaintingEntry.title);
     }
 
     @Override
@@ -274,10 +607,7 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
         tvX.setText(String.valueOf(seekBarLineNo.getProgress()));
         tvY.setText(String.valueOf(seekBarUnit.getProgress()));
 
-        setData(currLineState, seekBarLineNo.getProgress(), currChannel, seekBarUnit.getProgress());
-
-        // redraw
-        chart.invalidate();
+        setData(currLineState, seekBarLineNo.getProgress(), seekBarUnit.getProgress());
     }
 
     @Override
@@ -286,125 +616,294 @@ public class ChartActivity extends AppCompatActivity implements SeekBar.OnSeekBa
     @Override
     public void onStopTrackingTouch(SeekBar seekBar) {}
 
-    private void setData(ImageChannelDataPoint.Line_State lineState, int noLine, int channel, int unit) {
-        Log.i(TAG, "setData() called on " + lineState.toString() + " " + noLine
-                            + " with channel " + channel + " and unit gap of " + unit);
+    // Only queues the request, the chart is updated once its points are computed
+    private void setData(ImageChannelDataPoint.Line_State lineState, int noLine, int unit) {
+        if (AppLog.VERBOSE) {
+            AppLog.d(TAG, "setData() called on " + lineState.toString() + " " + noLine
+                                + " and unit gap of " + unit);
+        }
+        counterRequests.increment();
+        loaderData.submit(new DataRequest(lineState, noLine, unit));
+    }
+
+    // On the background thread
+    private DataPoints loadDataPoints(DataRequest request, BooleanSupplier isStale) {
+        if (isStale.getAsBoolean()) { // Slider moved on before this started
+            return null;
+        }
+        long timeStart = System.nanoTime();
+        try {
+            return getDataPoints(request);
+        } finally {
+            histogramLoad.recordSince(timeStart);
+        }
+    }
 
-        ArrayList<Entry> entries = new ArrayList<>();
-        int[] values = ImageChannelDataPoint.getDataPoints(currPainting, lineState, noLine, channel, unit);
-        int numPoints = values.length;
-        for (int i = 0; i < numPoints; i++) {
-            entries.add(new Entry(i, values[i], getDrawable(R.drawable.star)));
+    private DataPoints getDataPoints(DataRequest request) {
+        RYBPlanes planes = currPlanes;
+        MappedRYBPlanes planesMapped = currPlanesMapped;
+        if (isTiled && planesMapped == null) { // Nothing to read yet, loaded again once converted
+            return null;
         }
+        if (request.unit <= 1) { // Full detail
+            int[][] lines;
+            if (planesMapped != null) {
+                lines = ImageChannelDataPoint.getLinesAllChannels(planesMapped, request.lineState,
+                        request.noLine);
+            } else if (planes != null) {
+                lines = ImageChannelDataPoint.getLinesAllChannels(planes, request.lineState,
+                        request.noLine);
+            } else {
+                lines = ImageChannelDataPoint.getLinesAllChannels(currPainting,
+                        request.lineState, request.noLine, getConverter());
+            }
+            LineProfilePyramid[] pyramids = new LineProfilePyramid[lines.length];
+            for (int channel = 0; channel < lines.length; channel++) {
+                pyramids[channel] = new LineProfilePyramid(lines[channel]);
+            }
+            return new DataPoints(null, pyramids);
+        }
+        if (planesMapped != null) {
+            return new DataPoints(ImageChannelDataPoint.getDataPointsAllChannels(planesMapped,
+                    request.lineState, request.noLine, request.unit), null);
+        }
+        if (planes != null) {
+            return new DataPoints(ImageChannelDataPoint.getDataPointsAllChannels(planes.getIntegralImage(),
+                    request.lineState, request.noLine, request.unit), null);
+        }
+        return new DataPoints(ImageChannelDataPoint.getDataPointsAllChannels(currPainting,
+                request.lineState, request.noLine, request.unit, getConverter()), null);
+    }
 
-        LineDataSet set1;
+    // On the UI thread, the chart keeps the points it has until the next request
+    private void onDataPointsFailed(DataRequest request, RuntimeException e) {
+        Log.e(TAG, "Exception loading line " + request.noLine + " at unit " + request.unit, e);
+    }
+
+    // On the UI thread, with the points of the latest request
+    private void onDataPointsLoaded(DataRequest request, DataPoints points) {
+        if (isStatisticsShown || points == null) { // Requested before the switch, or not converted
+            return;
+        }
+        pyramidsShown = points.pyramids;
+        XAxis xAxis = chart.getXAxis();
+        if (pyramidsShown != null) {
+            // Entries only cover what is visible, so pin the axis to the whole line
+            xAxis.setAxisMinimum(0);
+            xAxis.setAxisMaximum(pyramidsShown[0].getLength() - 1);
+            setEntriesLevelOfDetail();
+        } else {
+            xAxis.resetAxisMinimum();
+            xAxis.resetAxisMaximum();
+            for (int channel = 0; channel < entriesChannels.length; channel++) {
+                entriesChannels[channel].setValues(points.values[channel]);
+            }
+        }
+        updateChart();
+        histogramSlider.recordSince(request.timeSubmitNs);
+    }
 
+    // With the entries already set
+    private void updateChart() {
         if (chart.getData() != null &&
                 chart.getData().getDataSetCount() > 0) {
-            set1 = (LineDataSet) chart.getData().getDataSetByIndex(0);
-            set1.setValues(entries);
-            set1.notifyDataSetChanged();
-
-            // set color of filled area
-            if (Utils.getSDKInt() >= 18) {
-                Drawable drawable = getDrawable(R.drawable.fade_red);
-                Log.i(TAG, "Reached picking drawable with channel: " + channel);
-                // drawables only supported on api level 18 and above
-                switch (channel) {
-                    case 0:
-                        drawable = getDrawable(R.drawable.fade_red);
-                        Log.i(TAG, "Drawable fade Red selected");
-                        break;
-                    case 1:
-                        drawable = getDrawable(R.drawable.fade_yellow);
-                        Log.i(TAG, "Drawable fade Yellow selected");
-                        break;
-                    case 2:
-                        drawable = getDrawable(R.drawable.fade_blue);
-                        Log.i(TAG, "Drawable fade Blue selected");
-                        break;
-                }
-                set1.setFillDrawable(drawable);
-            } else {
-                set1.setFillColor(Color.BLACK);
+            for (ILineDataSet set : chart.getData().getDataSets()) {
+                ((LineDataSet) set).notifyDataSetChanged(); // Entries already updated in place
+            }
+            showChannels();
+        } else {
+            ArrayList<ILineDataSet> dataSets = new ArrayList<>();
+            String[] labels = new String[] {getString(R.string.channel_red),
+                    getString(R.string.channel_yellow), getString(R.string.channel_blue)};
+            for (int channel = 0; channel < entriesChannels.length; channel++) {
+                dataSets.add(createDataSet(channel, labels[channel])); // add the data sets
             }
 
-            chart.getData().notifyDataChanged();
-            chart.notifyDataSetChanged();
+            // create a data object with the data sets
+            LineData data = new LineData(dataSets);
+
+            // set data
+            chart.setData(data);
+            showChannels();
+
+            // draw points over time
+            chart.animateX(1500);
+        }
+    }
+
+    // Histograms of the channels in the chart, from the statistics built with the planes
+    private void showStatistics() {
+        seekBarLineNo.setEnabled(false);
+        seekBarUnit.setEnabled(false);
+        RYBPlanes planes = currPlanes;
+        if (planes == null) { // Shown once converted
+            return;
+        }
+        RYBStatistics statistics = planes.getStatistics();
+        pyramidsShown = null;
+        XAxis xAxis = chart.getXAxis();
+        xAxis.setAxisMinimum(0);
+        xAxis.setAxisMaximum(RYBStatistics.NUM_BIN - 1);
+        int maxCount = 0;
+        for (int channel = 0; channel < entriesChannels.length; channel++) {
+            entriesChannels[channel].setValues(statistics.getHistogram(channel));
+            maxCount = Math.max(maxCount, statistics.getMaxCount(channel));
+        }
+        chart.getAxisLeft().setAxisMaximum(maxCount);
+        updateChart();
+        showHeatmap();
+    }
+
+    private void hideStatistics() {
+        isStatisticsShown = false;
+        seekBarLineNo.setEnabled(true);
+        seekBarUnit.setEnabled(true);
+        chart.getAxisLeft().setAxisMaximum(255f);
+        painting.setImageDrawable(null);
+    }
+
+    // Over the painting, the heatmap of the current channel, or of all mixed back to RGB
+    private void showHeatmap() {
+        RYBPlanes planes = currPlanes;
+        if (planes == null) {
+            return;
+        }
+        int iHeatmap = currChannel == iAll ? RYBPlanes.NUM_CHANNEL : currChannel;
+        if (bitmapsHeatmap[iHeatmap] == null) {
+            bitmapsHeatmap[iHeatmap] = getHeatmap(planes.getStatistics(), currChannel);
+        }
+        painting.setImageBitmap(bitmapsHeatmap[iHeatmap]);
+    }
+
+    // From white at 0 to the channel's color at 255
+    private Bitmap getHeatmap(RYBStatistics statistics, int channel) {
+        int width = statistics.getWidthHeatmap(), height = statistics.getHeightHeatmap();
+        int[] colors = new int[width * height];
+        if (channel == iAll) {
+            int[] reds = statistics.getHeatmap(iRed);
+            int[] yellows = statistics.getHeatmap(iYellow);
+            int[] blues = statistics.getHeatmap(iBlue);
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = RYBConverter.getRGB(0xFF000000 | reds[i] << 16 | yellows[i] << 8 | blues[i]);
+            }
         } else {
-            // create a dataset and give it a type
-            // create a dataset and give it a type
-            set1 = new LineDataSet(entries, "DataSet 1");
+            int[] values = statistics.getHeatmap(channel);
+            int color = colorsChannel[channel];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = Color.rgb(mix(Color.red(color), values[i]),
+                        mix(Color.green(color), values[i]), mix(Color.blue(color), values[i]));
+            }
+        }
+        return Bitmap.createBitmap(colors, width, height, Bitmap.Config.ARGB_8888);
+    }
 
-            set1.setDrawIcons(false);
+    private static int mix(int component, int value) {
+        return 255 - (255 - component) * value / 255;
+    }
 
-            // draw dashed line
-            set1.enableDashedLine(10f, 5f, 0f);
+    private LineDataSet createDataSet(int channel, String label) {
+        // create a dataset and give it a type
+        LineDataSet set1 = new LineDataSet(entriesChannels[channel].getEntries(), label);
 
-            // black lines and points
-            set1.setColor(Color.BLACK);
-            set1.setCircleColor(Color.BLACK);
+        set1.setDrawIcons(false);
 
-            // line thickness and point size
-            set1.setLineWidth(1f);
-            set1.setCircleRadius(3f);
+        // draw dashed line
+        set1.enableDashedLine(10f, 5f, 0f);
 
-            // draw points as solid circles
-            set1.setDrawCircleHole(false);
+        // black lines and points
+        set1.setColor(Color.BLACK);
+        set1.setCircleColor(Color.BLACK);
 
-            // customize legend entry
-            set1.setFormLineWidth(1f);
-            set1.setFormLineDashEffect(new DashPathEffect(new float[]{10f, 5f}, 0f));
-            set1.setFormSize(15.f);
+        // line thickness and point size
+        set1.setLineWidth(1f);
+        set1.setCircleRadius(3f);
 
-            // text size of values
-            set1.setValueTextSize(9f);
+        // draw points as solid circles
+        set1.setDrawCircleHole(false);
 
-            // draw selection line as dashed
-            set1.enableDashedHighlightLine(10f, 5f, 0f);
+        // customize legend entry
+        set1.setFormLineWidth(1f);
+        set1.setFormLineDashEffect(new DashPathEffect(new float[]{10f, 5f}, 0f));
+        set1.setFormSize(15.f);
 
-            // set the filled area
-            set1.setDrawFilled(true);
-            set1.setFillFormatter(new IFillFormatter() {
-                @Override
-                public float getFillLinePosition(ILineDataSet dataSet, LineDataProvider dataProvider) {
-                    return chart.getAxisLeft().getAxisMinimum();
-                }
-            });
+        // text size of values
+        set1.setValueTextSize(9f);
 
-            // set color of filled area
-            if (Utils.getSDKInt() >= 18) {
-                Drawable drawable = getDrawable(R.drawable.fade_red);
-                Log.i(TAG, "Reached picking drawable with channel: " + channel);
-                // drawables only supported on api level 18 and above
-                switch (channel) {
-                    case 0:
-                        drawable = getDrawable(R.drawable.fade_red);
-                        Log.i(TAG, "Drawable fade Red selected");
-                        break;
-                    case 1:
-                        drawable = getDrawable(R.drawable.fade_yellow);
-                        Log.i(TAG, "Drawable fade Yellow selected");
-                        break;
-                    case 2:
-                        drawable = getDrawable(R.drawable.fade_blue);
-                        Log.i(TAG, "Drawable fade Blue selected");
-                        break;
-                }
-                set1.setFillDrawable(drawable);
-            } else {
-                set1.setFillColor(Color.BLACK);
+        // draw selection line as dashed
+        set1.enableDashedHighlightLine(10f, 5f, 0f);
+
+        // set the filled area
+        set1.setDrawFilled(true);
+        set1.setFillFormatter(new IFillFormatter() {
+            @Override
+            public float getFillLinePosition(ILineDataSet dataSet, LineDataProvider dataProvider) {
+                return chart.getAxisLeft().getAxisMinimum();
             }
+        });
 
-            ArrayList<ILineDataSet> dataSets = new ArrayList<>();
-            dataSets.add(set1); // add the data sets
+        // set color of filled area
+        if (Utils.getSDKInt() >= 18) {
+            // drawables only supported on api level 18 and above
+            set1.setFillDrawable(drawablesFill[channel]);
+        } else {
+            set1.setFillColor(Color.BLACK);
+        }
+        return set1;
+    }
 
-            // create a data object with the data sets
-            LineData data = new LineData(dataSets);
+    // Entries of the visible range from the pyramids, about one point per pixel of the chart
+    private void setEntriesLevelOfDetail() {
+        int maxPoints = (int) chart.getViewPortHandler().contentWidth();
+        if (maxPoints <= 0) { // Not laid out yet
+            maxPoints = getResources().getDisplayMetrics().widthPixels;
+        }
+        if (xsDetail.length < maxPoints + 1) {
+            xsDetail = new float[maxPoints + 1];
+            ysDetail = new int[maxPoints + 1];
+        }
+        int xStart = 0, xEnd = pyramidsShown[0].getLength() - 1;
+        if (chart.getData() != null) { // One sample of margin, so lines run off the edges
+            xStart = Math.max(xStart, (int) Math.floor(chart.getLowestVisibleX()) - 1);
+            xEnd = Math.min(xEnd, (int) Math.ceil(chart.getHighestVisibleX()) + 1);
+        }
+        for (int channel = 0; channel < entriesChannels.length; channel++) {
+            int numPoints = pyramidsShown[channel].getEnvelope(xStart, xEnd, maxPoints, xsDetail, ysDetail);
+            entriesChannels[channel].setPoints(xsDetail, ysDetail, numPoints);
+        }
+    }
 
-            // set data
-            chart.setData(data);
+    // On pinch zoom or drag
+    private void updateLevelOfDetail() {
+        if (pyramidsShown == null || chart.getData() == null) {
+            return;
+        }
+        setEntriesLevelOfDetail();
+        for (ILineDataSet set : chart.getData().getDataSets()) {
+            ((LineDataSet) set).notifyDataSetChanged();
+        }
+        chart.getData().notifyDataChanged();
+        chart.notifyDataSetChanged();
+        chart.invalidate();
+    }
+
+    // Shows the data set of the current channel, or all of them in their own colors when overlaid
+    private void showChannels() {
+        if (chart.getData() == null) {
+            return;
         }
+        boolean isOverlay = currChannel == iAll;
+        for (int channel = 0; channel < chart.getData().getDataSetCount(); channel++) {
+            LineDataSet set = (LineDataSet) chart.getData().getDataSetByIndex(channel);
+            boolean isShown = isOverlay || channel == currChannel;
+            set.setVisible(isShown);
+            set.setHighlightEnabled(isShown);
+            int color = isOverlay ? colorsChannel[channel] : Color.BLACK;
+            set.setColor(color);
+            set.setCircleColor(color);
+        }
+        chart.getData().notifyDataChanged();
+        chart.notifyDataSetChanged();
+        chart.invalidate();
     }
 
 }
@@ -0,0 +1,87 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.Metrics;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Report of Metrics over an activity, refreshed every second while shown. Shown on demand, e.g.
+ * on a long press; showing it also dumps the report to metrics.txt in the app's external files
+ * dir, to be pulled with adb.
+ */
+class MetricsOverlay {
+    private static final String TAG = "MetricsOverlay";
+    private static final long PERIOD_REFRESH_MS = 1000;
+    private static final String NAME_DUMP = "metrics.txt";
+
+    private final Activity activity;
+    private final TextView textReport;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable refresh = this::refresh;
+
+    MetricsOverlay(Activity activity) {
+        this.activity = activity;
+        textReport = new TextView(activity);
+        textReport.setTypeface(Typeface.MONOSPACE);
+        textReport.setTextSize(TypedValue.COMPLEX_UNIT_SP, 10);
+        textReport.setTextColor(Color.WHITE);
+        textReport.setBackgroundColor(0xB0000000);
+        textReport.setPadding(16, 16, 16, 16);
+        textReport.setVisibility(View.GONE);
+        ViewGroup content = activity.findViewById(android.R.id.content);
+        content.addView(textReport, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.TOP | Gravity.START));
+    }
+
+    void toggle() {
+        if (textReport.getVisibility() == View.VISIBLE) {
+            textReport.setVisibility(View.GONE);
+            handler.removeCallbacks(refresh);
+        } else {
+            textReport.setVisibility(View.VISIBLE);
+            refresh();
+            dump();
+        }
+    }
+
+    // To be called from onPause(), stops the refreshing
+    void pause() {
+        handler.removeCallbacks(refresh);
+    }
+
+    void resume() {
+        if (textReport.getVisibility() == View.VISIBLE) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        textReport.setText(Metrics.getInstance().getReport());
+        handler.postDelayed(refresh, PERIOD_REFRESH_MS);
+    }
+
+    private void dump() {
+        File dir = activity.getExternalFilesDir(null);
+        File file = new File(dir != null ? dir : activity.getFilesDir(), NAME_DUMP);
+        try {
+            Metrics.getInstance().dump(file);
+            Log.i(TAG, "Metrics dumped to " + file);
+        } catch (IOException e) {
+            Log.e(TAG, "IO exception dumping metrics.", e);
+        }
+    }
+}
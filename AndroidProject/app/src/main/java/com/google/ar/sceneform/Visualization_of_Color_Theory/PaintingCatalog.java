@@ -0,0 +1,156 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Paintings the app recognizes, listed in assets/paintings.json, so adding one takes its files and
+ * an entry there rather than code:
+ *
+ * <pre>
+ *     {"name": "Forest", "title": "Parisian Boulevard", "image": "images/Forest.jpg",
+ *      "width_m": 0.0768, "height_m": 0.0596,
+ *      "drawable": "forest", "drawable_background": "forest_blurred"}
+ * </pre>
+ *
+ * <p>Paintings are added to the image database in the order listed, so the painting of
+ * AugmentedImage.getIndex() is get() of it. Only the list is read up front; the image, drawables
+ * and material of a painting are loaded when it is first shown.
+ */
+class PaintingCatalog {
+    private static final String TAG = "PaintingCatalog";
+    private static final String NAME_MANIFEST = "paintings.json";
+
+    private static PaintingCatalog instance;
+
+    static class Painting {
+        final int index;
+        final String name; // Also keys what is kept of it, e.g. its RYB planes
+        final String title;
+        final String pathImage; // In the assets
+        final float widthMeters, heightMeters; // Of the print, or in the ratio of the image
+        private final String nameDrawable, nameDrawableBackground; // Null if none
+
+        Painting(int index, JSONObject json) throws JSONException {
+            this.index = index;
+            name = json.getString("name");
+            title = json.optString("title", name);
+            pathImage = json.getString("image");
+            widthMeters = (float) json.getDouble("width_m");
+            heightMeters = (float) json.getDouble("height_m");
+            nameDrawable = json.optString("drawable", null);
+            nameDrawableBackground = json.optString("drawable_background", null);
+        }
+
+        /**
+         * Resource ID of the painting as shown in the chart, 0 if none. Looked up by name when
+         * asked for, as only the one shown is.
+         */
+        int getDrawable(Context context) {
+            return getIdentifier(context, nameDrawable);
+        }
+
+        // Blurred, behind the chart
+        int getDrawableBackground(Context context) {
+            return getIdentifier(context, nameDrawableBackground);
+        }
+
+        private static int getIdentifier(Context context, String nameDrawable) {
+            return nameDrawable == null ? 0 : context.getResources()
+                    .getIdentifier(nameDrawable, "drawable", context.getPackageName());
+        }
+    }
+
+    private final List<Painting> paintings;
+    private final String hash;
+
+    private PaintingCatalog(List<Painting> paintings, String hash) {
+        this.paintings = Collections.unmodifiableList(paintings);
+        this.hash = hash;
+    }
+
+    /**
+     * Read on the first call. The manifest ships with the app, so failing to read it is a
+     * packaging error and thrown as such.
+     */
+    static synchronized PaintingCatalog getInstance(Context context) {
+        if (instance == null) {
+            try {
+                instance = read(context.getAssets());
+            } catch (IOException | JSONException e) {
+                throw new IllegalStateException("Could not read " + NAME_MANIFEST, e);
+            }
+            Log.i(TAG, instance.size() + " paintings in the catalog");
+        }
+        return instance;
+    }
+
+    private static PaintingCatalog read(AssetManager assets) throws IOException, JSONException {
+        byte[] bytes;
+        try (InputStream is = assets.open(NAME_MANIFEST)) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1 << 13];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                os.write(buffer, 0, read);
+            }
+            bytes = os.toByteArray();
+        }
+        JSONArray array = new JSONObject(new String(bytes, StandardCharsets.UTF_8))
+                .getJSONArray("paintings");
+        List<Painting> paintings = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            paintings.add(new Painting(i, array.getJSONObject(i)));
+        }
+        return new PaintingCatalog(paintings, getHash(bytes));
+    }
+
+    // SHA-256 in hex
+    private static String getHash(byte[] bytes) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Always present on Android
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    Painting get(int index) {
+        return paintings.get(index);
+    }
+
+    int size() {
+        return paintings.size();
+    }
+
+    List<Painting> getPaintings() {
+        return paintings;
+    }
+
+    /**
+     * Hash of the manifest, which changes with any painting listed, added or removed.
+     */
+    String getHash() {
+        return hash;
+    }
+}
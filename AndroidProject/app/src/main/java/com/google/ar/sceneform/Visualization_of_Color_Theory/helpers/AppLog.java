@@ -0,0 +1,84 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import android.util.Log;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.BuildConfig;
+
+/**
+ * Logging for the per-frame and per-pixel paths, where the message itself costs more than it's
+ * worth. Call sites guard the message with a check, so it's only built when it will be logged:
+ *
+ * <pre>
+ *     if (AppLog.VERBOSE) {
+ *         AppLog.d(TAG, "Line " + noLine);
+ *     }
+ *     if (samplerLine.sample()) {
+ *         AppLog.trace(TAG, "Line = " + Arrays.toString(line));
+ *     }
+ * </pre>
+ *
+ * <p>VERBOSE is a compile time constant, false in release builds, so javac drops the guarded
+ * blocks; proguard-rules.pro also strips the v() and d() calls left unguarded once minified.
+ *
+ * <p>Trace mode logs one call in every so many of a call site, in any build. It's off unless
+ * turned on with setTracing(), or on launch with {@code adb shell setprop log.tag.ColorTheoryTrace
+ * VERBOSE}. Errors and warnings go straight to Log.
+ */
+public final class AppLog {
+    public static final boolean VERBOSE = BuildConfig.DEBUG;
+
+    private static final String TAG_TRACE = "ColorTheoryTrace";
+
+    private static volatile boolean isTracing = Log.isLoggable(TAG_TRACE, Log.VERBOSE);
+
+    private AppLog() {}
+
+    public static void v(String tag, String msg) {
+        if (VERBOSE) {
+            Log.v(tag, msg);
+        }
+    }
+
+    public static void d(String tag, String msg) {
+        if (VERBOSE) {
+            Log.d(tag, msg);
+        }
+    }
+
+    // Only to be called once a Sampler let it through
+    public static void trace(String tag, String msg) {
+        Log.i(tag, msg);
+    }
+
+    public static boolean isTracing() {
+        return isTracing;
+    }
+
+    public static void setTracing(boolean on) {
+        isTracing = on;
+    }
+
+    /**
+     * Lets one call in every period through while tracing, to be kept per call site. Racing threads
+     * may let an extra call through or skip one, which is fine for a sample.
+     */
+    public static class Sampler {
+        private final int period;
+        private int count;
+
+        public Sampler(int period) {
+            this.period = period;
+        }
+
+        public boolean sample() {
+            if (!isTracing) {
+                return false;
+            }
+            if (++count < period) {
+                return false;
+            }
+            count = 0;
+            return true;
+        }
+    }
+}
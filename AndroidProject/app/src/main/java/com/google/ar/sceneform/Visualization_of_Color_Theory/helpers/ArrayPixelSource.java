@@ -0,0 +1,43 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+/**
+ * Pixels held in an array in row-major order.
+ */
+public class ArrayPixelSource implements PixelSource {
+    private final int[] pixels;
+    private final int width;
+    private final int height;
+
+    public ArrayPixelSource(int[] pixels, int width, int height) {
+        if (pixels.length < width * height) {
+            throw new IllegalArgumentException("Fewer pixels than " + width + " by " + height);
+        }
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void getPixels(int[] out, int offset, int stride, int x, int y, int width, int height) {
+        if (x < 0 || y < 0 || x + width > this.width || y + height > this.height) {
+            throw new IllegalArgumentException("Region out of the image");
+        }
+        for (int row = 0; row < height; row++) {
+            if (width == 1) { // Column, the common case besides rows
+                out[offset + row * stride] = pixels[(y + row) * this.width + x];
+            } else {
+                System.arraycopy(pixels, (y + row) * this.width + x, out, offset + row * stride, width);
+            }
+        }
+    }
+}
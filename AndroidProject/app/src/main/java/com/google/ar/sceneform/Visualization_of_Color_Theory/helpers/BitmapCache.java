@@ -0,0 +1,283 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Decodes of the images in assets, shared across the app so a painting is decoded once rather than
+ * by every screen showing it. Bitmaps handed out are shared, so are not to be modified or recycled,
+ * and each acquire is to be matched by a release. Bitmaps no longer held are kept, least recently
+ * used dropped first, once over the byte budget; the memory of those dropped is reused by later
+ * decodes through inBitmap. Decoding is done outside the lock, so it never holds up a release or
+ * an acquire already cached; callers asking for an image being decoded wait for that decode.
+ */
+public class BitmapCache {
+    private static final String TAG = "BitmapCache";
+    private static final int BYTES_PIXEL = 4; // ARGB_8888
+    private static final int RATIO_BUDGET_POOL = 4; // Bytes held for reuse, as a part of the budget
+
+    private static BitmapCache instance;
+
+    private static class Entry {
+        final Bitmap bitmap;
+        int numHolders;
+
+        Entry(Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+    }
+
+    // In access order, least recently used first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final IdentityHashMap<Bitmap, Entry> entriesBitmap = new IdentityHashMap<>();
+    // Dropped bitmaps, free to be decoded into
+    private final ArrayList<Bitmap> pool = new ArrayList<>();
+    // Decodes under way, by key, completed once the entry is in
+    private final HashMap<String, CompletableFuture<Bitmap>> decodes = new HashMap<>();
+    // Full size of each image, {width, height}
+    private final HashMap<String, int[]> sizes = new HashMap<>();
+    private long budgetBytes;
+    private long sizeBytes;
+    private long sizePoolBytes;
+
+    public BitmapCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public static synchronized BitmapCache getInstance() {
+        if (instance == null) {
+            instance = new BitmapCache(Runtime.getRuntime().maxMemory() / 8);
+            Metrics.getInstance().gauge("bitmaps.bytes", instance::getSizeBytes);
+        }
+        return instance;
+    }
+
+    /**
+     * Image at full resolution.
+     */
+    public Bitmap acquire(AssetManager assets, String path) throws IOException {
+        return acquire(assets, path, 0);
+    }
+
+    /**
+     * Image sampled down by the largest power of 2 that keeps its shorter side at least sideMin,
+     * for uses that don't need full resolution.
+     *
+     * @param sideMin in pixels, 0 for full resolution
+     */
+    public Bitmap acquire(AssetManager assets, String path, int sideMin) throws IOException {
+        int[] size = getSize(assets, path);
+        int sampleSize = getSampleSize(size[0], size[1], sideMin);
+        String key = path + "@" + sampleSize;
+        int width = (size[0] + sampleSize - 1) / sampleSize; // At most, rounding differs by codec
+        int height = (size[1] + sampleSize - 1) / sampleSize;
+        while (true) {
+            CompletableFuture<Bitmap> decoding;
+            Bitmap bitmapReused = null;
+            boolean isDecoding;
+            synchronized (this) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    entry.numHolders++;
+                    trim();
+                    return entry.bitmap;
+                }
+                decoding = decodes.get(key);
+                isDecoding = decoding == null;
+                if (isDecoding) {
+                    decoding = new CompletableFuture<>();
+                    decodes.put(key, decoding);
+                    bitmapReused = takeFromPool((long) width * height * BYTES_PIXEL);
+                }
+            }
+            if (isDecoding) {
+                return decode(assets, path, sampleSize, key, bitmapReused, decoding);
+            }
+            await(decoding); // Then held as any entry, unless dropped since
+        }
+    }
+
+    public synchronized void release(Bitmap bitmap) {
+        Entry entry = entriesBitmap.get(bitmap);
+        if (entry == null || entry.numHolders == 0) {
+            Log.e(TAG, "Released a bitmap not held");
+            return;
+        }
+        entry.numHolders--;
+        trim();
+    }
+
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        trim();
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes + sizePoolBytes;
+    }
+
+    // Powers of 2 are what BitmapFactory samples by exactly
+    static int getSampleSize(int width, int height, int sideMin) {
+        int sampleSize = 1;
+        if (sideMin > 0) {
+            int side = Math.min(width, height);
+            while (side / (sampleSize * 2) >= sideMin) {
+                sampleSize *= 2;
+            }
+        }
+        return sampleSize;
+    }
+
+    /**
+     * {width, height} of the image at full resolution, read from its header the first time.
+     */
+    public int[] getSize(AssetManager assets, String path) throws IOException {
+        synchronized (this) {
+            int[] size = sizes.get(path);
+            if (size != null) {
+                return size;
+            }
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream is = assets.open(path)) {
+            BitmapFactory.decodeStream(is, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Could not decode the size of " + path);
+        }
+        int[] size = new int[] {options.outWidth, options.outHeight};
+        synchronized (this) { // Read twice at worst, to the same size
+            sizes.put(path, size);
+        }
+        return size;
+    }
+
+    // Decodes into the entry of the key, held once, and completes the decode for those waiting
+    private Bitmap decode(AssetManager assets, String path, int sampleSize, String key,
+                          Bitmap bitmapReused, CompletableFuture<Bitmap> decoding) throws IOException {
+        Bitmap bitmap;
+        try {
+            bitmap = decode(assets, path, sampleSize, bitmapReused);
+        } catch (IOException | RuntimeException | Error e) { // Those waiting are not left hanging
+            synchronized (this) {
+                decodes.remove(key);
+            }
+            decoding.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            Entry entry = new Entry(bitmap);
+            entry.numHolders++;
+            entries.put(key, entry);
+            entriesBitmap.put(bitmap, entry);
+            sizeBytes += bitmap.getAllocationByteCount();
+            decodes.remove(key);
+            trim();
+        }
+        decoding.complete(bitmap);
+        return bitmap;
+    }
+
+    private Bitmap decode(AssetManager assets, String path, int sampleSize, Bitmap bitmapReused)
+            throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        options.inMutable = true; // For its memory to be reused once dropped
+        options.inBitmap = bitmapReused;
+        Bitmap bitmap;
+        try (InputStream is = assets.open(path)) {
+            bitmap = BitmapFactory.decodeStream(is, null, options);
+        } catch (IllegalArgumentException e) { // Reused bitmap not fitting after all
+            if (options.inBitmap == null) {
+                throw e;
+            }
+            options.inBitmap.recycle();
+            options.inBitmap = null;
+            try (InputStream is = assets.open(path)) {
+                bitmap = BitmapFactory.decodeStream(is, null, options);
+            }
+        }
+        if (bitmap == null) {
+            if (options.inBitmap != null) { // Out of the pool, so no one else frees it
+                options.inBitmap.recycle();
+            }
+            throw new IOException("Could not decode " + path);
+        }
+        return bitmap;
+    }
+
+    private static void await(CompletableFuture<Bitmap> decoding) throws IOException {
+        try {
+            decoding.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a decode");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // Smallest bitmap in the pool large enough, or null
+    private Bitmap takeFromPool(long bytes) {
+        int iBest = -1;
+        for (int i = 0; i < pool.size(); i++) {
+            int bytesCurr = pool.get(i).getAllocationByteCount();
+            if (bytesCurr >= bytes && (iBest < 0 || bytesCurr < pool.get(iBest).getAllocationByteCount())) {
+                iBest = i;
+            }
+        }
+        if (iBest < 0) {
+            return null;
+        }
+        Bitmap bitmap = pool.remove(iBest);
+        sizePoolBytes -= bitmap.getAllocationByteCount();
+        return bitmap;
+    }
+
+    // Drops bitmaps not held, least recently used first, into the pool; then recycles the oldest
+    // in the pool beyond its part of the budget
+    private void trim() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (sizeBytes > budgetBytes && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.numHolders == 0) {
+                iterator.remove();
+                entriesBitmap.remove(entry.bitmap);
+                int bytes = entry.bitmap.getAllocationByteCount();
+                sizeBytes -= bytes;
+                pool.add(entry.bitmap);
+                sizePoolBytes += bytes;
+            }
+        }
+        while (sizePoolBytes > budgetBytes / RATIO_BUDGET_POOL && !pool.isEmpty()) {
+            Bitmap bitmap = pool.remove(0);
+            sizePoolBytes -= bitmap.getAllocationByteCount();
+            bitmap.recycle();
+        }
+    }
+}
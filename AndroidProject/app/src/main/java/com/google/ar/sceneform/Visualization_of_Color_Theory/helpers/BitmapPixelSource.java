@@ -0,0 +1,26 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import android.graphics.Bitmap;
+
+public class BitmapPixelSource implements PixelSource {
+    private final Bitmap bitmap;
+
+    public BitmapPixelSource(Bitmap bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    @Override
+    public int getWidth() {
+        return bitmap.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return bitmap.getHeight();
+    }
+
+    @Override
+    public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        bitmap.getPixels(pixels, offset, stride, x, y, width, height);
+    }
+}
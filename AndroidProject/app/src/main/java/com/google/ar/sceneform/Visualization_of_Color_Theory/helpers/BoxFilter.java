@@ -0,0 +1,225 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Filters of a single channel by the side x side square of pixels around each, port of
+ * sum_region, average_region and remove_illumination in image_factory.py. The script convolves
+ * with a square of ones, at side^2 operations a pixel; here the square is summed as a running
+ * sum along each row, then a running sum of those down each column, at the same cost for any
+ * side. Rows are split into bands for the first pass, columns into strips for the second, over a
+ * ForkJoinPool.
+ *
+ * <p>Borders are as ndimage.convolve() extends them, reflected about the edge (c b a | a b c),
+ * and an even side covers one more pixel after the center than before it, as convolving does.
+ * Unlike RYBIntegralImage this covers the squares past the edges, and keeps one int a pixel.
+ */
+public class BoxFilter {
+    // Sums of up to 255 * MAX_SIDE^2 fit in an int
+    public static final int MAX_SIDE = 2896;
+    private static final int MIN_ROWS_BAND = 16;
+    private static final int MIN_COLS_STRIP = 64; // Rows of a strip stay long enough to stream
+    private static final int BANDS_PER_THREAD = 4;
+
+    private static final int OUTPUT_SUM = 0, OUTPUT_AVERAGE = 1, OUTPUT_ILLUMINATION = 2;
+
+    private final ForkJoinPool pool;
+
+    public BoxFilter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BoxFilter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sum of the square around each pixel. The script's sum_region() returns these cast back to
+     * the 8 bits of its input, which wraps around; here they are whole.
+     */
+    public int[] sumRegion(byte[] plane, int width, int height, int side) {
+        int[] sums = new int[width * height];
+        filter(plane, width, height, side, OUTPUT_SUM, sums, null);
+        return sums;
+    }
+
+    /**
+     * Average of the square around each pixel, truncated to 8 bits as the script's
+     * average_region() casts it. It may be one higher where the script's sum of side^2 float
+     * fractions falls just below a whole number.
+     */
+    public byte[] averageRegion(byte[] plane, int width, int height, int side) {
+        byte[] averages = new byte[width * height];
+        filter(plane, width, height, side, OUTPUT_AVERAGE, null, averages);
+        return averages;
+    }
+
+    /**
+     * Each pixel less the average of the square around it, clipped to 0 to 255, as the script's
+     * remove_illumination(). Identical to it, as its float sums of whole numbers are exact.
+     */
+    public byte[] removeIllumination(byte[] plane, int width, int height, int side) {
+        byte[] removed = new byte[width * height];
+        filter(plane, width, height, side, OUTPUT_ILLUMINATION, null, removed);
+        return removed;
+    }
+
+    /**
+     * remove_illumination() of each RYB channel.
+     */
+    public RYBPlanes removeIllumination(RYBPlanes planes, int side) {
+        int width = planes.getWidth(), height = planes.getHeight();
+        byte[][] removed = new byte[RYBPlanes.NUM_CHANNEL][];
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            removed[channel] = removeIllumination(planes.getPlane(channel), width, height, side);
+        }
+        return new RYBPlanes(width, height, removed);
+    }
+
+    /**
+     * remove_illumination() of each channel of 0xAARRGGBB pixels, in place. Alpha is kept, where
+     * the script drops it.
+     */
+    public void removeIllumination(int[] argb, int width, int height, int side) {
+        checkSize(argb.length, width, height);
+        byte[] plane = new byte[width * height];
+        for (int shift = 16; shift >= 0; shift -= 8) {
+            for (int i = 0; i < plane.length; i++) {
+                plane[i] = (byte) (argb[i] >> shift);
+            }
+            byte[] removed = removeIllumination(plane, width, height, side);
+            int mask = ~(0xFF << shift);
+            for (int i = 0; i < plane.length; i++) {
+                argb[i] = argb[i] & mask | (removed[i] & 0xFF) << shift;
+            }
+        }
+    }
+
+    private void filter(byte[] plane, int width, int height, int side, int output, int[] sums,
+                        byte[] bytes) {
+        checkSize(plane.length, width, height);
+        if (side < 1 || side > MAX_SIDE) {
+            throw new IllegalArgumentException("Side out of 1 to " + MAX_SIDE + ": " + side);
+        }
+        if (width == 0 || height == 0) {
+            return;
+        }
+        int[] sumsRow = new int[width * height];
+        int numTasks = pool.getParallelism() * BANDS_PER_THREAD;
+        int rowsBand = Math.max(MIN_ROWS_BAND, (height + numTasks - 1) / numTasks);
+        pool.invoke(new Pass(0, height, rowsBand,
+                (rowStart, rowEnd) -> sumRows(plane, width, side, rowStart, rowEnd, sumsRow)));
+        int colsStrip = Math.max(MIN_COLS_STRIP, (width + numTasks - 1) / numTasks);
+        pool.invoke(new Pass(0, width, colsStrip, (colStart, colEnd) -> sumColumns(sumsRow, plane,
+                width, height, side, colStart, colEnd, output, sums, bytes)));
+    }
+
+    // Running sum of the side pixels along each row, into sumsRow
+    private static void sumRows(byte[] plane, int width, int side, int rowStart, int rowEnd,
+                                int[] sumsRow) {
+        int before = (side - 1) / 2;
+        int[] padded = new int[width + side - 1]; // Row with its reflected borders
+        for (int row = rowStart; row < rowEnd; row++) {
+            int iRow = row * width;
+            for (int i = 0; i < padded.length; i++) {
+                padded[i] = plane[iRow + reflect(i - before, width)] & 0xFF;
+            }
+            int sum = 0;
+            for (int i = 0; i < side; i++) {
+                sum += padded[i];
+            }
+            sumsRow[iRow] = sum;
+            for (int col = 1; col < width; col++) {
+                sum += padded[col + side - 1] - padded[col - 1];
+                sumsRow[iRow + col] = sum;
+            }
+        }
+    }
+
+    // Running sum of the side row sums down each column of the strip, written out a row at a time
+    private static void sumColumns(int[] sumsRow, byte[] plane, int width, int height, int side,
+                                   int colStart, int colEnd, int output, int[] sums, byte[] bytes) {
+        int before = (side - 1) / 2, after = side / 2;
+        int widthStrip = colEnd - colStart;
+        int[] sumsColumn = new int[widthStrip];
+        for (int row = -before; row <= after; row++) {
+            int iRow = reflect(row, height) * width + colStart;
+            for (int col = 0; col < widthStrip; col++) {
+                sumsColumn[col] += sumsRow[iRow + col];
+            }
+        }
+        double area = (double) side * side;
+        for (int row = 0; row < height; row++) {
+            if (row > 0) { // The row entering the square in, the one leaving it out
+                int iIn = reflect(row + after, height) * width + colStart;
+                int iOut = reflect(row - before - 1, height) * width + colStart;
+                for (int col = 0; col < widthStrip; col++) {
+                    sumsColumn[col] += sumsRow[iIn + col] - sumsRow[iOut + col];
+                }
+            }
+            int iRow = row * width + colStart;
+            switch (output) {
+                case OUTPUT_SUM:
+                    System.arraycopy(sumsColumn, 0, sums, iRow, widthStrip);
+                    break;
+                case OUTPUT_AVERAGE:
+                    for (int col = 0; col < widthStrip; col++) {
+                        bytes[iRow + col] = (byte) (sumsColumn[col] / (side * side));
+                    }
+                    break;
+                case OUTPUT_ILLUMINATION:
+                    for (int col = 0; col < widthStrip; col++) {
+                        double removed = (plane[iRow + col] & 0xFF) - sumsColumn[col] / area;
+                        bytes[iRow + col] = (byte) (removed > 0 ? (int) Math.min(removed, 255) : 0);
+                    }
+                    break;
+            }
+        }
+    }
+
+    // Index past either edge mirrored back in, as mode="reflect" of ndimage
+    private static int reflect(int index, int length) {
+        int period = 2 * length;
+        int i = index % period;
+        if (i < 0) {
+            i += period;
+        }
+        return i < length ? i : period - 1 - i;
+    }
+
+    private static void checkSize(int length, int width, int height) {
+        if (width < 0 || height < 0 || length < width * height) {
+            throw new IllegalArgumentException("Array too short for " + width + "x" + height);
+        }
+    }
+
+    private interface RangeBody {
+        void run(int start, int end);
+    }
+
+    // Splits start to end in halves down to grain, as BulkRYBConverter splits bands
+    private static class Pass extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int start, end, grain;
+        private final RangeBody body;
+
+        Pass(int start, int end, int grain, RangeBody body) {
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > grain) {
+                int mid = (start + end) >>> 1;
+                invokeAll(new Pass(start, mid, grain, body), new Pass(mid, end, grain, body));
+            } else {
+                body.run(start, end);
+            }
+        }
+    }
+}
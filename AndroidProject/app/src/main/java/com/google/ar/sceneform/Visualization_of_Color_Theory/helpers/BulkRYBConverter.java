@@ -0,0 +1,91 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Converts whole images to RYB, splitting them into bands of rows over a ForkJoinPool. Works on
+ * plain pixel arrays as from Bitmap.getPixels(), so it doesn't depend on Android.
+ */
+public class BulkRYBConverter {
+    private static final int MIN_ROWS_BAND = 16;
+    private static final int BANDS_PER_THREAD = 4; // Extra bands so uneven ones get stolen
+
+    private final ForkJoinPool pool;
+    private final ColorConverter converter;
+
+    public BulkRYBConverter() {
+        this(ForkJoinPool.commonPool(), ColorConverter.DIRECT);
+    }
+
+    public BulkRYBConverter(ForkJoinPool pool, ColorConverter converter) {
+        this.pool = pool;
+        this.converter = converter;
+    }
+
+    /**
+     * Replaces every 0xAARRGGBB pixel with its 0xAARRYYBB equivalent.
+     */
+    public void convertInPlace(int[] argb, int width, int height) {
+        checkSize(argb, width, height);
+        pool.invoke(new BandConversion(argb, null, width, 0, height, getRowsBand(height)));
+    }
+
+    /**
+     * Converts the pixels into channel planes, leaving them untouched.
+     */
+    public RYBPlanes convertToPlanes(int[] argb, int width, int height) {
+        checkSize(argb, width, height);
+        RYBPlanes planes = new RYBPlanes(width, height);
+        pool.invoke(new BandConversion(argb, planes, width, 0, height, getRowsBand(height)));
+        return planes;
+    }
+
+    private static void checkSize(int[] argb, int width, int height) {
+        if (width < 0 || height < 0 || argb.length < width * height) {
+            throw new IllegalArgumentException("Pixel array too short for " + width + "x" + height);
+        }
+    }
+
+    private int getRowsBand(int height) {
+        int numBands = pool.getParallelism() * BANDS_PER_THREAD;
+        return Math.max(MIN_ROWS_BAND, (height + numBands - 1) / numBands);
+    }
+
+    private class BandConversion extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] argb;
+        private final RYBPlanes planes; // Converts in place if null
+        private final int width, rowStart, rowEnd, rowsBand;
+
+        BandConversion(int[] argb, RYBPlanes planes, int width, int rowStart, int rowEnd, int rowsBand) {
+            this.argb = argb;
+            this.planes = planes;
+            this.width = width;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+            this.rowsBand = rowsBand;
+        }
+
+        @Override
+        protected void compute() {
+            if (rowEnd - rowStart > rowsBand) {
+                int rowMid = (rowStart + rowEnd) >>> 1;
+                invokeAll(new BandConversion(argb, planes, width, rowStart, rowMid, rowsBand),
+                          new BandConversion(argb, planes, width, rowMid, rowEnd, rowsBand));
+            } else if (planes == null) {
+                int iStart = rowStart * width;
+                converter.getRYB(argb, iStart, argb, iStart, (rowEnd - rowStart) * width);
+            } else {
+                int[] row = new int[width]; // Converted a row at a time, then split into the planes
+                for (int y = rowStart; y < rowEnd; y++) {
+                    converter.getRYB(argb, y * width, row, 0, width);
+                    for (int x = 0, i = y * width; x < width; x++, i++) {
+                        planes.set(i, row[x]);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.util.stream.IntStream;
+
+/**
+ * Makes the channel views of a painting from the original, port of dummy_other_channel and
+ * get_channels_except (RYB) in color_system_converter.py. The output matches the images that
+ * script wrote, including its converting each pixel to RYB twice.
+ */
+public class ChannelFilter {
+    // A single RYB channel, or the mix of the other two with one channel left out
+    public static final int
+            iRed = RYBConverter.iRed,
+            iYellow = RYBConverter.iYellow,
+            iBlue = RYBConverter.iBlue,
+            iGreen = 3, // Without red
+            iOrange = 4, // Without blue
+            iPurple = 5; // Without yellow
+    public static final int NUM_FILTER = 6;
+
+    private ChannelFilter() {}
+
+    /**
+     * Replaces every pixel with its filtered color, in parallel.
+     */
+    public static void apply(int[] argb, int width, int height, int iFilter) {
+        checkFilter(iFilter);
+        if (width < 0 || height < 0 || argb.length < width * height) {
+            throw new IllegalArgumentException("Pixel array too short for " + width + "x" + height);
+        }
+        IntStream.range(0, width * height).parallel()
+                .forEach(i -> argb[i] = filter(argb[i], iFilter));
+    }
+
+    /**
+     * Same as apply() from the pixels already converted once and twice, e.g. in bulk by a faster
+     * ColorConverter, so several filters of a painting share the two conversions.
+     */
+    public static void apply(int[] rybOnce, int[] ryb, int[] out, int iFilter) {
+        checkFilter(iFilter);
+        IntStream.range(0, out.length).parallel()
+                .forEach(i -> out[i] = filterConverted(rybOnce[i], ryb[i], iFilter));
+    }
+
+    /**
+     * Color of a pixel as shown for the filter, in RGB, alpha kept.
+     */
+    public static int filter(int argb, int iFilter) {
+        int rybOnce = RYBConverter.getRYB(argb);
+        int ryb = RYBConverter.getRYB(rybOnce); // As the script converts an already converted image
+        return filterConverted(rybOnce, ryb, iFilter);
+    }
+
+    // Alpha is kept through both conversions
+    private static int filterConverted(int rybOnce, int ryb, int iFilter) {
+        int red = RYBConverter.channel(ryb, iRed);
+        int yellow = RYBConverter.channel(ryb, iYellow);
+        int blue = RYBConverter.channel(ryb, iBlue);
+        int alpha = rybOnce & 0xFF000000;
+        switch (iFilter) {
+            case iRed:
+                return alpha | red << 16;
+            case iYellow: // Red and green to the magnitude of yellow
+                return alpha | yellow << 16 | yellow << 8;
+            case iBlue:
+                return alpha | blue;
+            case iGreen: { // Yellow and blue, yellow deepened by the first conversion's yellow
+                int yellowGreen = getChannelSum(yellow, (int) (RYBConverter.channel(rybOnce, iYellow) * 0.4));
+                return alpha | (int) (yellowGreen * 0.7) << 16 | yellowGreen << 8 | blue;
+            }
+            case iOrange: // Red and yellow
+                return alpha | getChannelSum(red, yellow) << 16 | yellow << 8;
+            case iPurple: // Red and blue
+                return alpha | getChannelSum(red, (int) (red * 0.1)) << 16 | (int) (blue * 0.9);
+            default:
+                throw new IllegalArgumentException("No filter of index " + iFilter);
+        }
+    }
+
+    private static int getChannelSum(int magnitude1, int magnitude2) {
+        return Math.min(magnitude1 + magnitude2, 255);
+    }
+
+    private static void checkFilter(int iFilter) {
+        if (iFilter < 0 || iFilter >= NUM_FILTER) {
+            throw new IllegalArgumentException("No filter of index " + iFilter);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+/**
+ * Converts a packed color from RGB to RYB. Lets per-pixel loops swap the direct float math of
+ * RYBConverter for a precomputed table, see RYBLut.
+ */
+public interface ColorConverter {
+    // Computes each pixel with RYBConverter
+    ColorConverter DIRECT = RYBConverter::getRYB;
+
+    /**
+     * @param argb color packed as 0xAARRGGBB
+     * @return RYB color packed as 0xAARRYYBB, alpha kept
+     */
+    int getRYB(int argb);
+
+    /**
+     * Converts length colors of src into dst, which may be the same array. Converters that do
+     * several pixels at once, see VectorRYBConverter of the batch converter, override it.
+     */
+    default void getRYB(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i] = getRYB(src[srcOffset + i]);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+/**
+ * Time spent in app code per frame, against a budget meant to be a small share of the 16 ms a
+ * frame has at 60 fps. Not thread safe, to be used from the frame callback.
+ */
+public class FrameTimer {
+    private final long budgetNs;
+    private long numFrames;
+    private long numOverBudget;
+    private long sumNs;
+    private long maxNs;
+
+    public FrameTimer(long budgetNs) {
+        this.budgetNs = budgetNs;
+    }
+
+    /**
+     * @return whether the frame went over budget
+     */
+    public boolean record(long ns) {
+        numFrames++;
+        sumNs += ns;
+        if (ns > maxNs) {
+            maxNs = ns;
+        }
+        if (ns > budgetNs) {
+            numOverBudget++;
+            return true;
+        }
+        return false;
+    }
+
+    public long getNumFrames() {
+        return numFrames;
+    }
+
+    public long getNumOverBudget() {
+        return numOverBudget;
+    }
+
+    public long getMeanNs() {
+        return numFrames > 0 ? sumNs / numFrames : 0;
+    }
+
+    public long getMaxNs() {
+        return maxNs;
+    }
+
+    public void reset() {
+        numFrames = 0;
+        numOverBudget = 0;
+        sumNs = 0;
+        maxNs = 0;
+    }
+
+    @Override
+    public String toString() {
+        return numFrames + " frames, mean " + getMeanNs() / 1000 + " us, max " + maxNs / 1000
+                + " us, " + numOverBudget + " over the budget of " + budgetNs / 1000 + " us";
+    }
+}
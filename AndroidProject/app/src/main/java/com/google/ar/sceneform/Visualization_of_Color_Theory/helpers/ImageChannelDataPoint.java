@@ -1,72 +1,167 @@
 package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
 
-import android.graphics.Color;
 import android.graphics.Bitmap;
 
-import android.util.Log;
-
 public class ImageChannelDataPoint {
     private static final String TAG = "DataPointsGetter";
 
     public enum Line_State {ROW, COLUMN};
 
+    private static final Metrics.Histogram histogramLine = Metrics.getInstance().histogram("chart.line");
+    private static final Metrics.Histogram histogramLines =
+            Metrics.getInstance().histogram("chart.lines_all_channels");
+    // Every point of a line is too much to log on each slider tick
+    private static final AppLog.Sampler samplerLine = new AppLog.Sampler(32);
+
     public static int[] getDataPoints(Bitmap img, Line_State state, int noLine, int channel, int unit) {
-        Log.i(TAG, "getDataPoints() called with image: " + img + ", state " + state.toString()
-                                + " at line " + noLine + " with channel " + channel
-                                + " at density of " + unit);
-        int[] line = getLine(img, state, noLine, channel);
-        line = segmentLine(line, unit);
-        StringBuilder strLine = new StringBuilder();
-        for (int i : line) {
-            strLine.append(i);
-            strLine.append(" ");
+        return getDataPoints(img, state, noLine, channel, unit, ColorConverter.DIRECT);
+    }
+
+    public static int[] getDataPoints(Bitmap img, Line_State state, int noLine, int channel, int unit,
+                                      ColorConverter converter) {
+        if (AppLog.VERBOSE) {
+            AppLog.d(TAG, "getDataPoints() called with image: " + img + ", state " + state.toString()
+                                    + " at line " + noLine + " with channel " + channel
+                                    + " at density of " + unit);
         }
-        Log.i(TAG, "getDataPoints() returned with line = " + strLine);
-        return line;
+        long timeStart = System.nanoTime();
+        int[] line = LineProfiles.getLine(new BitmapPixelSource(img), state == Line_State.ROW, noLine,
+                channel, converter);
+        int[] points = segmentAndLog(line, unit);
+        histogramLine.recordSince(timeStart);
+        return points;
     }
 
-    // That line of equivalent RYB values.
-    private static int[] getLine(Bitmap img, Line_State state, int noLine, int channel) {
-        int[] line;
-        if (state == Line_State.ROW) {
-            line = new int[img.getWidth()];
-            for (int col = 0; col < img.getWidth(); col++) {
-                line[col] = RYBConverter.getRYB(getColor(img, noLine, col))[channel];
-            }
-        } else {
-            line = new int[img.getHeight()];
-            for (int row = 0; row < img.getHeight(); row++) {
-                line[row] = RYBConverter.getRYB(getColor(img, row, noLine))[channel];
-            }
+    // Same as from the bitmap, but the line is sliced from planes converted beforehand.
+    public static int[] getDataPoints(RYBPlanes planes, Line_State state, int noLine, int channel, int unit) {
+        if (AppLog.VERBOSE) {
+            AppLog.d(TAG, "getDataPoints() called with planes: " + planes + ", state " + state.toString()
+                                    + " at line " + noLine + " with channel " + channel
+                                    + " at density of " + unit);
         }
+        long timeStart = System.nanoTime();
+        int[] line = state == Line_State.ROW ?
+                planes.getRow(channel, noLine, new int[planes.getWidth()]) :
+                planes.getColumn(channel, noLine, new int[planes.getHeight()]);
+        int[] points = segmentAndLog(line, unit);
+        histogramLine.recordSince(timeStart);
+        return points;
+    }
+
+    // Segment averages straight from the summed-area table, without a pass over the line.
+    public static int[] getDataPoints(RYBIntegralImage index, Line_State state, int noLine, int channel,
+                                      int unit) {
+        if (AppLog.VERBOSE) {
+            AppLog.d(TAG, "getDataPoints() called with integral image: " + index + ", state " + state.toString()
+                                    + " at line " + noLine + " with channel " + channel
+                                    + " at density of " + unit);
+        }
+        long timeStart = System.nanoTime();
+        int[] line = index.getSegmentedLine(state == Line_State.ROW, noLine, channel, unit);
+        logLine(line);
+        histogramLine.recordSince(timeStart);
         return line;
     }
 
-    private static int[] getColor(Bitmap img, int row, int col) {
-//        Log.i(TAG, "getColor() called on " + img.toString() + "[" + row + "][" + col +"]. ");
-        int color = img.getPixel(col, row);
-        return new int[] {Color.red(color), Color.green(color), Color.blue(color)};
+    /**
+     * Lines of all 3 channels from a single pass over the pixels, indexed by channel.
+     */
+    public static int[][] getDataPointsAllChannels(Bitmap img, Line_State state, int noLine, int unit,
+                                                   ColorConverter converter) {
+        if (AppLog.VERBOSE) {
+            AppLog.d(TAG, "getDataPointsAllChannels() called with image: " + img + ", state " + state.toString()
+                                    + " at line " + noLine + " at density of " + unit);
+        }
+        long timeStart = System.nanoTime();
+        int[][] lines = getLinesAllChannels(img, state, noLine, converter);
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            lines[channel] = segmentAndLog(lines[channel], unit);
+        }
+        histogramLines.recordSince(timeStart);
+        return lines;
+    }
+
+    public static int[][] getDataPointsAllChannels(RYBIntegralImage index, Line_State state, int noLine,
+                                                   int unit) {
+        long timeStart = System.nanoTime();
+        int[][] lines = new int[RYBPlanes.NUM_CHANNEL][];
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            lines[channel] = getDataPoints(index, state, noLine, channel, unit);
+        }
+        histogramLines.recordSince(timeStart);
+        return lines;
+    }
+
+    /**
+     * Full detail lines of all 3 channels, not segmented, indexed by channel.
+     */
+    public static int[][] getLinesAllChannels(Bitmap img, Line_State state, int noLine,
+                                              ColorConverter converter) {
+        return LineProfiles.getLinesAllChannels(new BitmapPixelSource(img), state == Line_State.ROW,
+                noLine, converter);
     }
 
-    private static int[] segmentLine(int[] line, int unit) {
-        int len_line = line.length;
-        int[] lineSegmented = new int[len_line / unit];
-        int iStart;
-        for (int i = 0; i < lineSegmented.length; i++) {
-            iStart = i * unit;
-            lineSegmented[i] = getAvg(line, iStart,
-                                            iStart + unit < len_line ? // Checks last iteration
-                                                    iStart + unit : len_line - 1);
+    public static int[][] getLinesAllChannels(RYBPlanes planes, Line_State state, int noLine) {
+        int[][] lines = new int[RYBPlanes.NUM_CHANNEL][];
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            lines[channel] = state == Line_State.ROW ?
+                    planes.getRow(channel, noLine, new int[planes.getWidth()]) :
+                    planes.getColumn(channel, noLine, new int[planes.getHeight()]);
         }
-        return lineSegmented;
+        return lines;
+    }
+
+    // Lines of planes mapped from disk, read straight from the pages of the line
+    public static int[][] getLinesAllChannels(MappedRYBPlanes planes, Line_State state, int noLine) {
+        int[][] lines = new int[RYBPlanes.NUM_CHANNEL][];
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            lines[channel] = state == Line_State.ROW ?
+                    planes.getRow(channel, noLine, new int[planes.getWidth()]) :
+                    planes.getColumn(channel, noLine, new int[planes.getHeight()]);
+        }
+        return lines;
+    }
+
+    /**
+     * Segment averages of all 3 channels, from planes mapped from disk. With no summed-area table,
+     * each line is read in full first.
+     */
+    public static int[][] getDataPointsAllChannels(MappedRYBPlanes planes, Line_State state, int noLine,
+                                                   int unit) {
+        if (AppLog.VERBOSE) {
+            AppLog.d(TAG, "getDataPointsAllChannels() called with mapped planes: " + planes
+                                    + ", state " + state.toString() + " at line " + noLine
+                                    + " at density of " + unit);
+        }
+        long timeStart = System.nanoTime();
+        int[][] lines = getLinesAllChannels(planes, state, noLine);
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            lines[channel] = segmentAndLog(lines[channel], unit);
+        }
+        histogramLines.recordSince(timeStart);
+        return lines;
+    }
+
+    private static int[] segmentAndLog(int[] line, int unit) {
+        line = LineProfiles.segmentLine(line, unit);
+        logLine(line);
+        return line;
     }
 
-    // Inclusive
-    private static int getAvg(int[] line, int iStart, int iEnd) {
-        int sum = 0;
-        for (int i = iStart; i <= iEnd; i++) {
-            sum += line[i];
+    private static void logLine(int[] line) {
+        if (!samplerLine.sample()) {
+            return;
         }
-        return sum/(iEnd - iStart + 1);
+        StringBuilder strLine = new StringBuilder();
+        for (int i : line) {
+            strLine.append(i);
+            strLine.append(" ");
+        }
+        AppLog.trace(TAG, "getDataPoints() returned with line = " + strLine);
+    }
+
+    // All 3 channels of the whole image, converted in parallel.
+    public static RYBPlanes getPlanes(Bitmap img, BulkRYBConverter converter) {
+        return LineProfiles.getPlanes(new BitmapPixelSource(img), converter);
     }
 }
@@ -0,0 +1,112 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs requests on a background executor, only ever computing the latest one. Requests submitted
+ * while one is computing replace each other, and results of requests that went stale are dropped
+ * instead of delivered. A request whose task throws is dropped, and the exception is delivered in
+ * place of its result; the requests after it still run.
+ *
+ * @param <T> request
+ * @param <R> result
+ */
+public class LatestRequestLoader<T, R> {
+    public interface Task<T, R> {
+        // Long tasks should poll isStale and bail out early, returning anything
+        R compute(T request, BooleanSupplier isStale);
+    }
+
+    public interface Callback<T, R> {
+        void onLoaded(T request, R result);
+    }
+
+    public interface ErrorCallback<T> {
+        void onError(T request, RuntimeException e);
+    }
+
+    private final Executor worker;
+    private final Executor callbackExecutor;
+    private final Task<T, R> task;
+    private final Callback<T, R> callback;
+    private final ErrorCallback<T> callbackError;
+
+    // Latest request with its generation, swapped as one so a request is never paired with the
+    // generation of another. Taking it or cancelling leaves no request in its place.
+    private static final class Pending<T> {
+        final T request; // Null if taken or cancelled
+        final int generation;
+
+        Pending(T request, int generation) {
+            this.request = request;
+            this.generation = generation;
+        }
+    }
+
+    private final AtomicReference<Pending<T>> pending = new AtomicReference<>(new Pending<>(null, 0));
+    private boolean isDraining; // Guarded by this
+
+    public LatestRequestLoader(Executor worker, Executor callbackExecutor,
+                               Task<T, R> task, Callback<T, R> callback,
+                               ErrorCallback<T> callbackError) {
+        this.worker = worker;
+        this.callbackExecutor = callbackExecutor;
+        this.task = task;
+        this.callback = callback;
+        this.callbackError = callbackError;
+    }
+
+    public void submit(T request) {
+        pending.updateAndGet(prev -> new Pending<>(request, prev.generation + 1));
+        synchronized (this) {
+            if (isDraining) {
+                return;
+            }
+            isDraining = true;
+        }
+        worker.execute(this::drain);
+    }
+
+    // Drops the pending request and any result not yet delivered
+    public void cancel() {
+        pending.updateAndGet(prev -> new Pending<>(null, prev.generation + 1));
+    }
+
+    private void drain() {
+        while (true) {
+            Pending<T> taken = pending.getAndUpdate(
+                    prev -> prev.request == null ? prev : new Pending<>(null, prev.generation));
+            T request = taken.request;
+            if (request == null) {
+                synchronized (this) { // Submits seeing isDraining set leave the request to this loop
+                    if (pending.get().request == null) {
+                        isDraining = false;
+                        return;
+                    }
+                }
+                continue;
+            }
+            BooleanSupplier isStale = () -> pending.get().generation != taken.generation;
+            R result;
+            try {
+                result = task.compute(request, isStale);
+            } catch (RuntimeException e) { // Not thrown on, the worker would die with it
+                deliver(isStale, () -> callbackError.onError(request, e));
+                continue;
+            }
+            deliver(isStale, () -> callback.onLoaded(request, result));
+        }
+    }
+
+    private void deliver(BooleanSupplier isStale, Runnable delivery) {
+        if (!isStale.getAsBoolean()) {
+            callbackExecutor.execute(() -> {
+                if (!isStale.getAsBoolean()) { // Could have gone stale while posted
+                    delivery.run();
+                }
+            });
+        }
+    }
+}
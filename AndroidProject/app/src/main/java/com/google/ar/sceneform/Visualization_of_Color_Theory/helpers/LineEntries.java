@@ -0,0 +1,50 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import com.github.mikephil.charting.data.Entry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chart entries of a line profile, updated in place. Entries are only created or set aside when
+ * the number of points changes, and set aside ones are reused first.
+ */
+public class LineEntries {
+    private final ArrayList<Entry> entries = new ArrayList<>();
+    private final ArrayList<Entry> entriesSpare = new ArrayList<>();
+
+    // The same list every time, hand it to the data set once
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setValues(int[] values) {
+        int numPoints = values.length;
+        resize(numPoints);
+        for (int i = 0; i < numPoints; i++) {
+            Entry entry = entries.get(i);
+            entry.setX(i);
+            entry.setY(values[i]);
+        }
+    }
+
+    // For points not evenly spaced, such as a level of detail envelope
+    public void setPoints(float[] xs, int[] ys, int numPoints) {
+        resize(numPoints);
+        for (int i = 0; i < numPoints; i++) {
+            Entry entry = entries.get(i);
+            entry.setX(xs[i]);
+            entry.setY(ys[i]);
+        }
+    }
+
+    private void resize(int numPoints) {
+        while (entries.size() > numPoints) {
+            entriesSpare.add(entries.remove(entries.size() - 1));
+        }
+        while (entries.size() < numPoints) {
+            entries.add(entriesSpare.isEmpty() ?
+                    new Entry(0, 0) : entriesSpare.remove(entriesSpare.size() - 1));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+/**
+ * Multi-resolution min/max/average summary of a full-detail line profile, so a chart only gets
+ * about as many points as it has pixels for whatever range is visible.
+ *
+ * <p>Level 0 is the profile itself; each bucket of level k covers 2^k samples and holds their
+ * minimum, maximum, where those occur, and their sum.
+ */
+public class LineProfilePyramid {
+    private final int[] values;
+    // Indexed by level - 1
+    private final int[][] mins, maxs, iMins, iMaxs, sums;
+
+    public LineProfilePyramid(int[] values) {
+        this.values = values;
+        int numLevels = 0;
+        for (int len = values.length; len > 1; len = (len + 1) / 2) {
+            numLevels++;
+        }
+        mins = new int[numLevels][];
+        maxs = new int[numLevels][];
+        iMins = new int[numLevels][];
+        iMaxs = new int[numLevels][];
+        sums = new int[numLevels][];
+        for (int level = 1; level <= numLevels; level++) {
+            buildLevel(level);
+        }
+    }
+
+    // Merges pairs of buckets of the level below
+    private void buildLevel(int level) {
+        int numBelow = getNumBuckets(level - 1);
+        int num = (numBelow + 1) / 2;
+        int[] min = mins[level - 1] = new int[num];
+        int[] max = maxs[level - 1] = new int[num];
+        int[] iMin = iMins[level - 1] = new int[num];
+        int[] iMax = iMaxs[level - 1] = new int[num];
+        int[] sum = sums[level - 1] = new int[num];
+        for (int b = 0; b < num; b++) {
+            int left = 2 * b, right = left + 1;
+            min[b] = getMin(level - 1, left);
+            max[b] = getMax(level - 1, left);
+            iMin[b] = getIMin(level - 1, left);
+            iMax[b] = getIMax(level - 1, left);
+            sum[b] = getSum(level - 1, left);
+            if (right < numBelow) {
+                if (getMin(level - 1, right) < min[b]) {
+                    min[b] = getMin(level - 1, right);
+                    iMin[b] = getIMin(level - 1, right);
+                }
+                if (getMax(level - 1, right) > max[b]) {
+                    max[b] = getMax(level - 1, right);
+                    iMax[b] = getIMax(level - 1, right);
+                }
+                sum[b] += getSum(level - 1, right);
+            }
+        }
+    }
+
+    private int getNumBuckets(int level) {
+        return level == 0 ? values.length : mins[level - 1].length;
+    }
+
+    private int getMin(int level, int b) {
+        return level == 0 ? values[b] : mins[level - 1][b];
+    }
+
+    private int getMax(int level, int b) {
+        return level == 0 ? values[b] : maxs[level - 1][b];
+    }
+
+    private int getIMin(int level, int b) {
+        return level == 0 ? b : iMins[level - 1][b];
+    }
+
+    private int getIMax(int level, int b) {
+        return level == 0 ? b : iMaxs[level - 1][b];
+    }
+
+    private int getSum(int level, int b) {
+        return level == 0 ? values[b] : sums[level - 1][b];
+    }
+
+    public int getLength() {
+        return values.length;
+    }
+
+    // Coarsest detail needed so that [xStart, xEnd] fits in numBuckets buckets
+    private int getLevel(int xStart, int xEnd, int numBuckets) {
+        int level = 0;
+        while (level < mins.length
+                && (xEnd >> level) - (xStart >> level) + 1 > numBuckets) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Fills xs and ys with the min-max envelope of samples xStart to xEnd inclusive: the minimum and
+     * maximum of every bucket, in the order they occur, at their own x. At most maxPoints points.
+     *
+     * @return number of points written
+     */
+    public int getEnvelope(int xStart, int xEnd, int maxPoints, float[] xs, int[] ys) {
+        xStart = Math.max(xStart, 0);
+        xEnd = Math.min(xEnd, values.length - 1);
+        if (xEnd - xStart + 1 <= maxPoints) { // Full detail fits
+            return getRaw(xStart, xEnd, xs, ys);
+        }
+        int level = getLevel(xStart, xEnd, Math.max(maxPoints / 2, 1));
+        int count = 0;
+        for (int b = xStart >> level, bEnd = xEnd >> level; b <= bEnd; b++) {
+            int iMin = getIMin(level, b), iMax = getIMax(level, b);
+            int iFirst = Math.min(iMin, iMax), iLast = Math.max(iMin, iMax);
+            xs[count] = iFirst;
+            ys[count++] = values[iFirst];
+            if (iLast != iFirst) {
+                xs[count] = iLast;
+                ys[count++] = values[iLast];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fills xs and ys with the average of every bucket, rounded down, at the bucket center. At most
+     * maxPoints points.
+     *
+     * @return number of points written
+     */
+    public int getAverages(int xStart, int xEnd, int maxPoints, float[] xs, int[] ys) {
+        xStart = Math.max(xStart, 0);
+        xEnd = Math.min(xEnd, values.length - 1);
+        if (xEnd - xStart + 1 <= maxPoints) {
+            return getRaw(xStart, xEnd, xs, ys);
+        }
+        int level = getLevel(xStart, xEnd, Math.max(maxPoints, 1));
+        int size = 1 << level;
+        int count = 0;
+        for (int b = xStart >> level, bEnd = xEnd >> level; b <= bEnd; b++) {
+            int start = b * size;
+            int num = Math.min(size, values.length - start);
+            xs[count] = start + (num - 1) / 2f;
+            ys[count++] = getSum(level, b) / num;
+        }
+        return count;
+    }
+
+    private int getRaw(int xStart, int xEnd, float[] xs, int[] ys) {
+        int count = 0;
+        for (int x = xStart; x <= xEnd; x++) {
+            xs[count] = x;
+            ys[count++] = values[x];
+        }
+        return count;
+    }
+}
@@ -0,0 +1,85 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+/**
+ * RYB values along a row or column of an image, and their segment averages. Free of Android, so
+ * it can be measured on a desktop JVM; ImageChannelDataPoint wraps it for bitmaps.
+ */
+public class LineProfiles {
+    private LineProfiles() {}
+
+    // That line of equivalent RYB values.
+    public static int[] getLine(PixelSource img, boolean isRow, int noLine, int channel,
+                                ColorConverter converter) {
+        int[] line = getPixels(img, isRow, noLine);
+        for (int i = 0; i < line.length; i++) {
+            line[i] = RYBConverter.channel(converter.getRYB(line[i]), channel);
+        }
+        return line;
+    }
+
+    /**
+     * Full detail lines of all 3 channels from a single pass over the pixels, indexed by channel.
+     */
+    public static int[][] getLinesAllChannels(PixelSource img, boolean isRow, int noLine,
+                                              ColorConverter converter) {
+        int[] pixels = getPixels(img, isRow, noLine);
+        int[][] lines = new int[RYBPlanes.NUM_CHANNEL][pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            int ryb = converter.getRYB(pixels[i]);
+            for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+                lines[channel][i] = RYBConverter.channel(ryb, channel);
+            }
+        }
+        return lines;
+    }
+
+    // Colors of the line, read with a single getPixels() call.
+    public static int[] getPixels(PixelSource img, boolean isRow, int noLine) {
+        int[] line;
+        if (isRow) {
+            line = new int[img.getWidth()];
+            img.getPixels(line, 0, line.length, 0, noLine, line.length, 1);
+        } else {
+            line = new int[img.getHeight()];
+            img.getPixels(line, 0, 1, noLine, 0, 1, line.length);
+        }
+        return line;
+    }
+
+    // All 3 channels of the whole image, converted in parallel.
+    public static RYBPlanes getPlanes(PixelSource img, BulkRYBConverter converter) {
+        int width = img.getWidth(), height = img.getHeight();
+        int[] pixels = new int[width * height];
+        img.getPixels(pixels, 0, width, 0, 0, width, height);
+        return converter.convertToPlanes(pixels, width, height);
+    }
+
+    /**
+     * Averages of segments: segment i spans i * unit to i * unit + unit inclusive, the last one cut
+     * at the end of the line. Unit of 0 keeps every point.
+     */
+    public static int[] segmentLine(int[] line, int unit) {
+        if (unit == 0) {
+            return line;
+        }
+        int len_line = line.length;
+        int[] lineSegmented = new int[len_line / unit];
+        int iStart;
+        for (int i = 0; i < lineSegmented.length; i++) {
+            iStart = i * unit;
+            lineSegmented[i] = getAvg(line, iStart,
+                                            iStart + unit < len_line ? // Checks last iteration
+                                                    iStart + unit : len_line - 1);
+        }
+        return lineSegmented;
+    }
+
+    // Inclusive
+    private static int getAvg(int[] line, int iStart, int iEnd) {
+        int sum = 0;
+        for (int i = iStart; i <= iEnd; i++) {
+            sum += line[i];
+        }
+        return sum/(iEnd - iStart + 1);
+    }
+}
@@ -0,0 +1,49 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.nio.ByteBuffer;
+
+/**
+ * RYB planes of a painting too large for the heap, read through memory maps of the file
+ * RYBPlanesStore.writeTiled() made. Only the pages of the lines read are loaded, and the system may
+ * drop them again. Safe to read from any thread.
+ */
+public class MappedRYBPlanes {
+    private final int width;
+    private final int height;
+    private final ByteBuffer[] planes; // Indexed by RYBConverter.iRed, iYellow, iBlue
+
+    MappedRYBPlanes(int width, int height, ByteBuffer[] planes) {
+        this.width = width;
+        this.height = height;
+        this.planes = planes;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int get(int channel, int row, int col) {
+        return planes[channel].get(row * width + col) & 0xFF;
+    }
+
+    // Absolute reads only, so threads never share a position
+    public int[] getRow(int channel, int row, int[] out) {
+        ByteBuffer plane = planes[channel];
+        for (int col = 0, i = row * width; col < width; col++, i++) {
+            out[col] = plane.get(i) & 0xFF;
+        }
+        return out;
+    }
+
+    public int[] getColumn(int channel, int col, int[] out) {
+        ByteBuffer plane = planes[channel];
+        for (int row = 0, i = col; row < height; row++, i += width) {
+            out[row] = plane.get(i) & 0xFF;
+        }
+        return out;
+    }
+}
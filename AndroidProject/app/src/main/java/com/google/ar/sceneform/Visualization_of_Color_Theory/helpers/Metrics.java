@@ -0,0 +1,178 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters, latency histograms and gauges of the app, recorded without locks so they can sit on
+ * the frame and slider paths. Looked up by name, e.g. "ar.frame"; look ups are meant to be done
+ * once and the result kept in a field. Read with getReport() or dump().
+ */
+public class Metrics {
+    private static final Metrics instance = new Metrics();
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public static Metrics getInstance() {
+        return instance;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    // Read when reported, replaces any gauge of the name
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    public static class Counter {
+        private final LongAdder count = new LongAdder();
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long n) {
+            count.add(n);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * Durations in nanoseconds, in log-linear buckets like HdrHistogram: exact below 32, and within
+     * 1/16 of the value above.
+     */
+    public static class Histogram {
+        private static final int BITS_SUB = 4;
+        private static final int NUM_SUB = 1 << BITS_SUB;
+        private static final int NUM_BUCKET = (64 - BITS_SUB + 1) * NUM_SUB;
+
+        private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKET);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long ns) {
+            if (ns < 0) {
+                ns = 0;
+            }
+            counts.incrementAndGet(getIndex(ns));
+            count.increment();
+            sum.add(ns);
+            long maxCurr;
+            while (ns > (maxCurr = max.get()) && !max.compareAndSet(maxCurr, ns)) {
+                // Lost to another thread, try again against its value
+            }
+        }
+
+        // Since a System.nanoTime() taken before
+        public void recordSince(long timeStartNs) {
+            record(System.nanoTime() - timeStartNs);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getMean() {
+            long n = count.sum();
+            return n > 0 ? sum.sum() / n : 0;
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * Value at or below which the fraction of recorded values fall, as the top of its bucket.
+         *
+         * @param fraction from 0 to 1, e.g. 0.99 for p99
+         */
+        public long getPercentile(double fraction) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * n));
+            long seen = 0;
+            for (int i = 0; i < NUM_BUCKET; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(getTop(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        static int getIndex(long value) {
+            if (value < NUM_SUB) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - BITS_SUB;
+            return (shift + 1) * NUM_SUB + (int) (value >>> shift) - NUM_SUB;
+        }
+
+        // Largest value of the bucket
+        static long getTop(int index) {
+            if (index < NUM_SUB) {
+                return index;
+            }
+            int shift = index / NUM_SUB - 1;
+            long mantissa = NUM_SUB + index % NUM_SUB;
+            return ((mantissa + 1) << shift) - 1;
+        }
+    }
+
+    /**
+     * One line per metric, sorted by name. Histograms in milliseconds.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            report.append(entry.getKey()).append(": ").append(entry.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, LongSupplier> entry : new TreeMap<>(gauges).entrySet()) {
+            report.append(entry.getKey()).append(": ").append(entry.getValue().getAsLong()).append('\n');
+        }
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            report.append(entry.getKey())
+                    .append(": n ").append(histogram.getCount())
+                    .append(", mean ").append(toMs(histogram.getMean()))
+                    .append(", p50 ").append(toMs(histogram.getPercentile(0.5)))
+                    .append(", p99 ").append(toMs(histogram.getPercentile(0.99)))
+                    .append(", max ").append(toMs(histogram.getMax()))
+                    .append(" ms\n");
+        }
+        return report.toString();
+    }
+
+    public void dump(File file) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(getReport());
+        }
+    }
+
+    private static String toMs(long ns) {
+        return String.format("%.3f", ns / 1e6);
+    }
+}
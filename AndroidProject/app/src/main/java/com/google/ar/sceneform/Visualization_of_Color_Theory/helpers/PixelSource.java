@@ -0,0 +1,16 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+/**
+ * Image to read colors from, packed as 0xAARRGGBB. Lets the conversion and line code run on
+ * images other than Bitmap, e.g. on a desktop JVM.
+ */
+public interface PixelSource {
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Same contract as Bitmap.getPixels().
+     */
+    void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height);
+}
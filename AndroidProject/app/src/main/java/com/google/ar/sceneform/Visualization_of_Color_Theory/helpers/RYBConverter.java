@@ -5,6 +5,11 @@ import java.util.Arrays;
 import java.util.List;
 
 public class RYBConverter {
+    // Packed colors share the layout of android.graphics.Color, 0xAARRGGBB; for a packed RYB color
+    // red, yellow and blue take the places of red, green and blue
+    public static final int iRed = 0, iYellow = 1, iBlue = 2;
+    // Bump whenever the conversion changes, so anything precomputed from it gets rebuilt
+    public static final int ALGORITHM_VERSION = 1;
 
     public static void main(String[] args) {
         int[] rgb = new int[]{41, 204, 239};
@@ -42,6 +47,29 @@ public class RYBConverter {
         }
     }
 
+    // Same order of comparison as getMin(List) and getMax(List), so results are identical
+    private static float min(float a, float b) {
+        return b < a ? b : a;
+    }
+
+    private static float min(float a, float b, float c) {
+        return min(min(a, b), c);
+    }
+
+    private static float max(float a, float b, float c) {
+        float max= b > a ? b : a;
+        return c > max ? c : max;
+    }
+
+    static int pack(int alpha, int c0, int c1, int c2) {
+        return (alpha << 24) | (c0 << 16) | (c1 << 8) | c2;
+    }
+
+    // Channel of a packed color, by index of iRed, iYellow or iBlue
+    public static int channel(int packed, int channel) {
+        return (packed >> (16 - 8 * channel)) & 0xFF;
+    }
+
     static int[] getRYB(int[] rgb) {
         float red= rgb[0];
         float green= rgb[1];
@@ -81,6 +109,90 @@ public class RYBConverter {
         return new int[] {(int)red, (int)yellow, (int)blue};
     }
 
+    /**
+     * Allocation free equivalent of getRYB(int[]), for per-pixel loops.
+     *
+     * @param argb color packed as 0xAARRGGBB, e.g. from Bitmap.getPixel()
+     * @return RYB color packed as 0xAARRYYBB, alpha kept
+     */
+    public static int getRYB(int argb) {
+        float red= (argb >> 16) & 0xFF;
+        float green= (argb >> 8) & 0xFF;
+        float blue= argb & 0xFF;
+        float white= min(red, green, blue);
+
+        red-= white; // Remove white
+        green-= white;
+        blue-= white;
+
+        float magnitudeRGB= max(red, green, blue);
+
+        // Yellow is mixed with red and green in RGB
+        float yellow= min(red, green);
+        red-= yellow;
+        green-= yellow;
+
+        if (green != 0.0 && blue != 0.0) { // So that doesn't exceed maximum range
+            green/= 2.0;
+            blue/= 2.0;
+        }
+
+        yellow+= green; // Green is mixed with yellow and blue in RYB
+        blue+= green;
+
+        float magintudeRYB= max(red, yellow, blue); // Normalize
+        if (magintudeRYB != 0) {
+            float ratio= magnitudeRGB/magintudeRYB;
+            red*= ratio;
+            yellow*= ratio;
+            blue*= ratio;
+        }
+
+        red+= white;
+        yellow+= white;
+        blue+= white;
+        return pack(argb >>> 24, (int)red, (int)yellow, (int)blue);
+    }
+
+    /**
+     * Single channel of getRYB(int), before truncation to 8 bits.
+     *
+     * @param argb color packed as 0xAARRGGBB
+     * @param channel one of iRed, iYellow, iBlue
+     */
+    public static float getRYBChannel(int argb, int channel) {
+        float red= (argb >> 16) & 0xFF;
+        float green= (argb >> 8) & 0xFF;
+        float blue= argb & 0xFF;
+        float white= min(red, green, blue);
+
+        red-= white; // Remove white
+        green-= white;
+        blue-= white;
+
+        float magnitudeRGB= max(red, green, blue);
+
+        // Yellow is mixed with red and green in RGB
+        float yellow= min(red, green);
+        red-= yellow;
+        green-= yellow;
+
+        if (green != 0.0 && blue != 0.0) { // So that doesn't exceed maximum range
+            green/= 2.0;
+            blue/= 2.0;
+        }
+
+        yellow+= green; // Green is mixed with yellow and blue in RYB
+        blue+= green;
+
+        float magintudeRYB= max(red, yellow, blue); // Normalize
+        float value= channel == iRed ? red : channel == iYellow ? yellow : blue;
+        if (magintudeRYB != 0) {
+            value*= magnitudeRGB/magintudeRYB;
+        }
+        return value + white;
+    }
+
     static int[] getRGB(int[] ryb) {
         float red= ryb[0];
         float yellow= ryb[1];
@@ -119,4 +231,49 @@ public class RYBConverter {
         blue+= white;
         return new int[] {(int)red, (int)green, (int)blue};
     }
+
+    /**
+     * Allocation free equivalent of getRGB(int[]).
+     *
+     * @param aryb RYB color packed as 0xAARRYYBB
+     * @return color packed as 0xAARRGGBB, alpha kept
+     */
+    public static int getRGB(int aryb) {
+        float red= (aryb >> 16) & 0xFF;
+        float yellow= (aryb >> 8) & 0xFF;
+        float blue= aryb & 0xFF;
+        float white= min(red, yellow, blue);
+
+        red-= white; // Remove white
+        yellow-= white;
+        blue-= white;
+
+        float magnitudeRYB= max(red, yellow, blue);
+
+        // Green is mixed with yellow and blue in RYB
+        float green= min(yellow, blue);
+        yellow-= green;
+        blue-= green;
+
+        if (yellow != 0.0 && blue != 0.0) { // So that doesn't exceed maximum range
+            yellow/= 2.0;
+            blue/= 2.0;
+        }
+
+        green+= yellow; // Yellow is mixed with red and green in RGB
+        blue+= yellow;
+
+        float magintudeRGB= max(red, green, blue); // Normalize
+        if (magintudeRGB != 0) {
+            float ratio= magnitudeRYB/magintudeRGB;
+            red*= ratio;
+            green*= ratio;
+            blue*= ratio;
+        }
+
+        red+= white;
+        green+= white;
+        blue+= white;
+        return pack(aryb >>> 24, (int)red, (int)green, (int)blue);
+    }
 }
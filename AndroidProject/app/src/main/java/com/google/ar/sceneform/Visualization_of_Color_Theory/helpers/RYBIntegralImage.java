@@ -0,0 +1,152 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+/**
+ * Summed-area table of each RYB channel, answering the sum or average over any rectangle of
+ * pixels in constant time.
+ *
+ * <p>Sums are kept in ints and left to wrap around; the difference of wrapped sums is still exact
+ * for any rectangle of up to 8 million pixels, since 255 * 2^23 fits in an int.
+ */
+public class RYBIntegralImage {
+    private final int width;
+    private final int height;
+    private final int stride; // width + 1, row and column 0 are all zero
+    private final int[][] sums;
+
+    public RYBIntegralImage(RYBPlanes planes) {
+        width = planes.getWidth();
+        height = planes.getHeight();
+        stride = width + 1;
+        sums = new int[RYBPlanes.NUM_CHANNEL][];
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            sums[channel] = buildSums(planes.getPlane(channel));
+        }
+    }
+
+    // Of sums already built, as read back by RYBPlanesStore
+    RYBIntegralImage(int width, int height, int[][] sums) {
+        this.width = width;
+        this.height = height;
+        stride = width + 1;
+        this.sums = sums;
+    }
+
+    private int[] buildSums(byte[] plane) {
+        int[] sum = new int[getLengthSums(width, height)];
+        for (int row = 0; row < height; row++) {
+            int sumRow = 0;
+            int iPlane = row * width;
+            int iSum = (row + 1) * stride + 1;
+            for (int col = 0; col < width; col++) {
+                sumRow += plane[iPlane + col] & 0xFF;
+                sum[iSum + col] = sum[iSum + col - stride] + sumRow;
+            }
+        }
+        return sum;
+    }
+
+    int[] getSums(int channel) {
+        return sums[channel];
+    }
+
+    static int getLengthSums(int width, int height) {
+        return (width + 1) * (height + 1);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Inclusive
+    public int getSum(int channel, int rowStart, int colStart, int rowEnd, int colEnd) {
+        int[] sum = sums[channel];
+        int top = rowStart * stride, bottom = (rowEnd + 1) * stride;
+        return sum[bottom + colEnd + 1] - sum[bottom + colStart]
+                - sum[top + colEnd + 1] + sum[top + colStart];
+    }
+
+    // Inclusive, rounded down like ImageChannelDataPoint
+    public int getAvg(int channel, int rowStart, int colStart, int rowEnd, int colEnd) {
+        return getSum(channel, rowStart, colStart, rowEnd, colEnd)
+                / ((rowEnd - rowStart + 1) * (colEnd - colStart + 1));
+    }
+
+    public int getRowAvg(int channel, int row, int colStart, int colEnd) {
+        return getAvg(channel, row, colStart, row, colEnd);
+    }
+
+    public int getColumnAvg(int channel, int col, int rowStart, int rowEnd) {
+        return getAvg(channel, rowStart, col, rowEnd, col);
+    }
+
+    /**
+     * Same as segmenting a whole row or column of the channel with LineProfiles: segment i
+     * spans i * unit to i * unit + unit inclusive, the last one cut at the end of the line. Unit of 0
+     * keeps every point.
+     */
+    public int[] getSegmentedLine(boolean isRow, int noLine, int channel, int unit) {
+        checkUnit(unit);
+        int lenLine = isRow ? width : height;
+        if (unit == 0) {
+            int[] line = new int[lenLine];
+            for (int i = 0; i < lenLine; i++) {
+                line[i] = isRow ? getRowAvg(channel, noLine, i, i) : getColumnAvg(channel, noLine, i, i);
+            }
+            return line;
+        }
+        int[] lineSegmented = new int[lenLine / unit];
+        for (int i = 0; i < lineSegmented.length; i++) {
+            int iStart = i * unit;
+            int iEnd = getSegmentEnd(iStart, unit, lenLine);
+            lineSegmented[i] = isRow ? getRowAvg(channel, noLine, iStart, iEnd)
+                                     : getColumnAvg(channel, noLine, iStart, iEnd);
+        }
+        return lineSegmented;
+    }
+
+    /**
+     * Averages over blocks of unit by unit pixels, using the segments of getSegmentedLine() along
+     * both axes. Indexed by block row, then block column. Unit of 0 keeps every pixel.
+     */
+    public int[][] getBlockAvgs(int channel, int unit) {
+        checkUnit(unit);
+        if (unit == 0) {
+            int[][] pixels = new int[height][width];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    pixels[row][col] = getAvg(channel, row, col, row, col);
+                }
+            }
+            return pixels;
+        }
+        int[][] blocks = new int[height / unit][width / unit];
+        for (int i = 0; i < blocks.length; i++) {
+            int rowStart = i * unit;
+            int rowEnd = getSegmentEnd(rowStart, unit, height);
+            for (int j = 0; j < blocks[i].length; j++) {
+                int colStart = j * unit;
+                blocks[i][j] = getAvg(channel, rowStart, colStart, rowEnd,
+                                      getSegmentEnd(colStart, unit, width));
+            }
+        }
+        return blocks;
+    }
+
+    private static void checkUnit(int unit) {
+        if (unit < 0) {
+            throw new IllegalArgumentException("Unit below 0: " + unit);
+        }
+    }
+
+    private static int getSegmentEnd(int iStart, int unit, int lenLine) {
+        return iStart + unit < lenLine ? iStart + unit : lenLine - 1;
+    }
+
+    public long getSizeBytes() {
+        return 4L * RYBPlanes.NUM_CHANNEL * stride * (height + 1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Precomputed RGB to RYB table. Built once with RYBConverter, persisted to a file, and memory
+ * mapped read only afterwards, so later starts only pay page faults instead of the conversion.
+ */
+public class RYBLut implements ColorConverter {
+    public enum Precision {
+        FULL(1 << 24),      // Every 24-bit color, 64 MB, identical to RYBConverter
+        QUANTIZED_565(1 << 16); // Red and blue in 5 bits, green in 6 bits, 256 KB, off by up to 30
+
+        final int numEntries;
+
+        Precision(int numEntries) {
+            this.numEntries = numEntries;
+        }
+    }
+
+    private static final int MAGIC = 0x5259424C; // "RYBL"
+    private static final int VERSION_FORMAT = 1;
+    private static final int SIZE_HEADER = 16; // Magic, format, algorithm, precision
+    private static final int SIZE_CHUNK = 1 << 16; // Entries written at a time when building
+
+    private final Precision precision;
+    private final IntBuffer table;
+
+    private RYBLut(Precision precision, IntBuffer table) {
+        this.precision = precision;
+        this.table = table;
+    }
+
+    /**
+     * Maps the table stored in the directory, building and writing it first if it is missing or
+     * was made by another version. Can take seconds on first run, call off the UI thread.
+     */
+    public static RYBLut load(File directory, Precision precision) throws IOException {
+        File file = new File(directory, getFileName(precision));
+        if (!isValid(file, precision)) {
+            build(file, precision);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(SIZE_HEADER);
+            return new RYBLut(precision, buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer());
+        }
+    }
+
+    private static String getFileName(Precision precision) {
+        return "ryb_" + precision.name().toLowerCase() + ".lut";
+    }
+
+    private static boolean isValid(File file, Precision precision) throws IOException {
+        if (!file.isFile() || file.length() != SIZE_HEADER + 4L * precision.numEntries) {
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(SIZE_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            return header.getInt() == MAGIC
+                    && header.getInt() == VERSION_FORMAT
+                    && header.getInt() == RYBConverter.ALGORITHM_VERSION
+                    && header.getInt() == precision.ordinal();
+        }
+    }
+
+    // Written to a temporary file first, so a partial table is never mapped
+    private static void build(File file, Precision precision) throws IOException {
+        File fileTemp = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(fileTemp, "rw");
+             FileChannel channel = raf.getChannel()) {
+            raf.setLength(0);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(4 * SIZE_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION_FORMAT)
+                    .putInt(RYBConverter.ALGORITHM_VERSION).putInt(precision.ordinal());
+            buffer.flip();
+            writeFully(channel, buffer);
+            for (int iStart = 0; iStart < precision.numEntries; iStart += SIZE_CHUNK) {
+                buffer.clear();
+                int iEnd = Math.min(iStart + SIZE_CHUNK, precision.numEntries);
+                for (int i = iStart; i < iEnd; i++) {
+                    buffer.putInt(RYBConverter.getRYB(getRepresentative(precision, i)) & 0xFFFFFF);
+                }
+                buffer.flip();
+                writeFully(channel, buffer);
+            }
+            channel.force(false);
+        }
+        if (!fileTemp.renameTo(file)) {
+            throw new IOException("Could not move lookup table to " + file);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // Color an entry stands for, low bits of quantized channels filled by bit replication
+    private static int getRepresentative(Precision precision, int index) {
+        if (precision == Precision.FULL) {
+            return index;
+        }
+        int red = (index >> 11) & 0x1F;
+        int green = (index >> 5) & 0x3F;
+        int blue = index & 0x1F;
+        return ((red << 3 | red >> 2) << 16) | ((green << 2 | green >> 4) << 8) | (blue << 3 | blue >> 2);
+    }
+
+    private int getIndex(int argb) {
+        if (precision == Precision.FULL) {
+            return argb & 0xFFFFFF;
+        }
+        return ((argb >> 8) & 0xF800) | ((argb >> 5) & 0x07E0) | ((argb >> 3) & 0x001F);
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    @Override
+    public int getRYB(int argb) {
+        return (argb & 0xFF000000) | table.get(getIndex(argb));
+    }
+}
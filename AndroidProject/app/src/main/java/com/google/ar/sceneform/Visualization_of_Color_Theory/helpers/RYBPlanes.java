@@ -0,0 +1,104 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+/**
+ * An image converted to RYB, one 8-bit plane per channel in row-major order.
+ */
+public class RYBPlanes {
+    public static final int NUM_CHANNEL = 3;
+
+    private final int width;
+    private final int height;
+    private final byte[][] planes; // Indexed by RYBConverter.iRed, iYellow, iBlue
+    private volatile RYBIntegralImage integralImage;
+    private volatile RYBStatistics statistics;
+
+    public RYBPlanes(int width, int height) {
+        this(width, height, new byte[NUM_CHANNEL][width * height]);
+    }
+
+    RYBPlanes(int width, int height, byte[][] planes) {
+        this(width, height, planes, null);
+    }
+
+    RYBPlanes(int width, int height, byte[][] planes, RYBIntegralImage integralImage) {
+        this.width = width;
+        this.height = height;
+        this.planes = planes;
+        this.integralImage = integralImage;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int get(int channel, int row, int col) {
+        return planes[channel][row * width + col] & 0xFF;
+    }
+
+    public int[] getRow(int channel, int row, int[] out) {
+        byte[] plane = planes[channel];
+        for (int col = 0, i = row * width; col < width; col++, i++) {
+            out[col] = plane[i] & 0xFF;
+        }
+        return out;
+    }
+
+    public int[] getColumn(int channel, int col, int[] out) {
+        byte[] plane = planes[channel];
+        for (int row = 0, i = col; row < height; row++, i += width) {
+            out[row] = plane[i] & 0xFF;
+        }
+        return out;
+    }
+
+    byte[] getPlane(int channel) {
+        return planes[channel];
+    }
+
+    // Splits a packed RYB color into the planes, at row * width + col
+    void set(int index, int aryb) {
+        planes[RYBConverter.iRed][index] = (byte) (aryb >> 16);
+        planes[RYBConverter.iYellow][index] = (byte) (aryb >> 8);
+        planes[RYBConverter.iBlue][index] = (byte) aryb;
+    }
+
+    // Null until built
+    RYBIntegralImage getIntegralImageIfBuilt() {
+        return integralImage;
+    }
+
+    // Built on first call, meant to be done on the same background thread as the conversion
+    public RYBIntegralImage getIntegralImage() {
+        if (integralImage == null) {
+            synchronized (this) {
+                if (integralImage == null) {
+                    integralImage = new RYBIntegralImage(this);
+                }
+            }
+        }
+        return integralImage;
+    }
+
+    // Built on first call and kept with the planes, so views of it need no new pass
+    public RYBStatistics getStatistics() {
+        if (statistics == null) {
+            synchronized (this) {
+                if (statistics == null) {
+                    statistics = RYBStatistics.compute(this);
+                }
+            }
+        }
+        return statistics;
+    }
+
+    public long getSizeBytes() {
+        RYBIntegralImage index = integralImage;
+        RYBStatistics stats = statistics;
+        return (long) NUM_CHANNEL * width * height + (index != null ? index.getSizeBytes() : 0)
+                + (stats != null ? stats.getSizeBytes() : 0);
+    }
+}
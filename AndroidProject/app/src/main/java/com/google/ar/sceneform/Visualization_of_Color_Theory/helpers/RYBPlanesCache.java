@@ -0,0 +1,97 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the RYB planes of recently opened paintings, so they are converted once in the background
+ * rather than on every chart update. Least recently used paintings are dropped once the planes
+ * held exceed the byte budget.
+ */
+public class RYBPlanesCache {
+    private static final long DEFAULT_BUDGET_BYTES = 48L * 1024 * 1024;
+
+    private static RYBPlanesCache instance;
+
+    // In access order, least recently used first
+    private final LinkedHashMap<String, CompletableFuture<RYBPlanes>> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private final Executor executor;
+    private long budgetBytes;
+    private long sizeBytes;
+
+    public RYBPlanesCache(long budgetBytes, Executor executor) {
+        this.budgetBytes = budgetBytes;
+        this.executor = executor;
+    }
+
+    public static synchronized RYBPlanesCache getInstance() {
+        if (instance == null) {
+            instance = new RYBPlanesCache(DEFAULT_BUDGET_BYTES, Executors.newSingleThreadExecutor());
+            Metrics.getInstance().gauge("planes.bytes", instance::getSizeBytes);
+        }
+        return instance;
+    }
+
+    /**
+     * Planes cached under the key, or loaded on the executor if absent. Concurrent requests for a
+     * key share one load; a failed load is not cached.
+     */
+    public synchronized CompletableFuture<RYBPlanes> get(String key, Supplier<RYBPlanes> loader) {
+        CompletableFuture<RYBPlanes> future = entries.get(key);
+        if (future == null) {
+            future = CompletableFuture.supplyAsync(loader, executor);
+            entries.put(key, future);
+            final CompletableFuture<RYBPlanes> futureFinal = future;
+            future.whenComplete((planes, throwable) -> onLoaded(key, futureFinal, planes, throwable));
+        }
+        return future;
+    }
+
+    public synchronized void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+        trim();
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    private synchronized void onLoaded(String key, CompletableFuture<RYBPlanes> future,
+                                       RYBPlanes planes, Throwable throwable) {
+        if (entries.get(key) != future) { // Cleared while loading
+            return;
+        }
+        if (throwable != null) {
+            entries.remove(key);
+            return;
+        }
+        sizeBytes += planes.getSizeBytes();
+        trim();
+    }
+
+    // Evicts loaded planes, least recently used first, but never the most recent one
+    private void trim() {
+        Iterator<Map.Entry<String, CompletableFuture<RYBPlanes>>> iterator =
+                entries.entrySet().iterator();
+        int numLeft = entries.size();
+        while (sizeBytes > budgetBytes && numLeft > 1) {
+            CompletableFuture<RYBPlanes> future = iterator.next().getValue();
+            numLeft--;
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                sizeBytes -= future.join().getSizeBytes();
+                iterator.remove();
+            }
+        }
+    }
+}
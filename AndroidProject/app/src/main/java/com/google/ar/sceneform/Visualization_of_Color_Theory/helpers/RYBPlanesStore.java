@@ -0,0 +1,279 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Converted paintings kept on disk, so a painting is converted to RYB once rather than on every
+ * launch. A file holds a header, the 3 planes, and the summed-area tables if they were built, and
+ * is memory mapped to be read back. Files made by another version of the format or of
+ * RYBConverter are ignored and overwritten.
+ *
+ * <p>Layout, little endian: magic, format version, RYBConverter.ALGORITHM_VERSION, width, height
+ * and flags as ints; the red, yellow and blue planes, each width * height bytes, padded to a
+ * multiple of 4; then with FLAG_INTEGRAL, the sums of each channel as (width + 1) * (height + 1)
+ * ints.
+ *
+ * <p>Paintings too large to hold in memory are converted tile by tile straight into the file with
+ * writeTiled(), and read back with mapTiled() without loading the planes.
+ */
+public class RYBPlanesStore {
+    private static final int MAGIC = 0x52594250; // "RYBP"
+    private static final int VERSION_FORMAT = 1;
+    private static final int SIZE_HEADER = 24;
+    private static final int FLAG_INTEGRAL = 1;
+    private static final int SIZE_CHUNK = 1 << 16; // Ints written at a time
+    public static final String EXTENSION = ".ryb";
+
+    private final File directory;
+
+    public RYBPlanesStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Planes stored under the key, with the summed-area tables if stored too, or null if none or
+     * made by another version.
+     */
+    public RYBPlanes read(String key) throws IOException {
+        File file = getFile(key);
+        if (!file.isFile() || file.length() < SIZE_HEADER) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC
+                    || buffer.getInt() != VERSION_FORMAT
+                    || buffer.getInt() != RYBConverter.ALGORITHM_VERSION) {
+                return null;
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int flags = buffer.getInt();
+            if (width <= 0 || height <= 0
+                    || channel.size() != getSizeBytes(width, height, (flags & FLAG_INTEGRAL) != 0)) {
+                return null;
+            }
+            int sizePlane = width * height;
+            byte[][] planes = new byte[RYBPlanes.NUM_CHANNEL][sizePlane];
+            for (byte[] plane : planes) {
+                buffer.get(plane);
+            }
+            if ((flags & FLAG_INTEGRAL) == 0) {
+                return new RYBPlanes(width, height, planes);
+            }
+            buffer.position((int) (SIZE_HEADER + getSizePlanes(width, height)));
+            IntBuffer ints = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            int[][] sums = new int[RYBPlanes.NUM_CHANNEL][RYBIntegralImage.getLengthSums(width, height)];
+            for (int[] sum : sums) {
+                ints.get(sum);
+            }
+            return new RYBPlanes(width, height, planes, new RYBIntegralImage(width, height, sums));
+        }
+    }
+
+    /**
+     * Stores the planes under the key, with the summed-area tables if already built. Written to a
+     * temporary file first, so a partial one is never read.
+     */
+    public void write(String key, RYBPlanes planes) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File file = getFile(key);
+        File fileTemp = new File(file.getPath() + ".tmp");
+        int width = planes.getWidth(), height = planes.getHeight();
+        RYBIntegralImage integralImage = planes.getIntegralImageIfBuilt();
+        try (RandomAccessFile raf = new RandomAccessFile(fileTemp, "rw");
+             FileChannel channel = raf.getChannel()) {
+            raf.setLength(0);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(4 * SIZE_CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION_FORMAT).putInt(RYBConverter.ALGORITHM_VERSION)
+                    .putInt(width).putInt(height).putInt(integralImage != null ? FLAG_INTEGRAL : 0);
+            buffer.flip();
+            writeFully(channel, buffer);
+            for (int c = 0; c < RYBPlanes.NUM_CHANNEL; c++) {
+                writeFully(channel, ByteBuffer.wrap(planes.getPlane(c)));
+            }
+            int sizePadding = (int) (getSizePlanes(width, height) - 3L * width * height);
+            writeFully(channel, ByteBuffer.allocate(sizePadding));
+            if (integralImage != null) {
+                for (int c = 0; c < RYBPlanes.NUM_CHANNEL; c++) {
+                    int[] sum = integralImage.getSums(c);
+                    for (int iStart = 0; iStart < sum.length; iStart += SIZE_CHUNK) {
+                        buffer.clear();
+                        buffer.asIntBuffer().put(sum, iStart, Math.min(SIZE_CHUNK, sum.length - iStart));
+                        buffer.limit(4 * Math.min(SIZE_CHUNK, sum.length - iStart));
+                        writeFully(channel, buffer);
+                    }
+                }
+            }
+            channel.force(false);
+        }
+        if (!fileTemp.renameTo(file)) {
+            fileTemp.delete();
+            throw new IOException("Could not move planes to " + file);
+        }
+    }
+
+    /**
+     * Converts the image into planes stored under the key, one tile at a time, so only a tile of
+     * it is ever in memory; the planes are written through a memory map of the file. No summed-area
+     * tables are stored. Stops with an InterruptedIOException if the thread is interrupted, or a
+     * ClosedByInterruptException if that lands while writing the file.
+     *
+     * @param sideTile width and height of the tiles read from the source
+     */
+    public void writeTiled(String key, PixelSource source, int sideTile, ColorConverter converter)
+            throws IOException {
+        int width = source.getWidth(), height = source.getHeight();
+        long sizePlane = (long) width * height;
+        if (sizePlane > Integer.MAX_VALUE) {
+            throw new IOException("Too large to map, " + width + "x" + height);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File file = getFile(key);
+        File fileTemp = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile raf = new RandomAccessFile(fileTemp, "rw");
+             FileChannel channel = raf.getChannel()) {
+            raf.setLength(0);
+            raf.setLength(getSizeBytes(width, height, false));
+            ByteBuffer header = ByteBuffer.allocate(SIZE_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION_FORMAT).putInt(RYBConverter.ALGORITHM_VERSION)
+                    .putInt(width).putInt(height).putInt(0);
+            header.flip();
+            writeFully(channel, header);
+            MappedByteBuffer[] planes = new MappedByteBuffer[RYBPlanes.NUM_CHANNEL];
+            for (int c = 0; c < RYBPlanes.NUM_CHANNEL; c++) {
+                planes[c] = channel.map(FileChannel.MapMode.READ_WRITE, SIZE_HEADER + c * sizePlane,
+                        sizePlane);
+            }
+            int[] tile = new int[sideTile * sideTile];
+            for (int y = 0; y < height; y += sideTile) {
+                int heightTile = Math.min(sideTile, height - y);
+                for (int x = 0; x < width; x += sideTile) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedIOException("Interrupted converting tiles");
+                    }
+                    int widthTile = Math.min(sideTile, width - x);
+                    source.getPixels(tile, 0, widthTile, x, y, widthTile, heightTile);
+                    converter.getRYB(tile, 0, tile, 0, widthTile * heightTile);
+                    for (int row = 0, i = 0; row < heightTile; row++) {
+                        int index = (y + row) * width + x;
+                        for (int col = 0; col < widthTile; col++, i++, index++) {
+                            int ryb = tile[i];
+                            planes[RYBConverter.iRed].put(index, (byte) (ryb >> 16));
+                            planes[RYBConverter.iYellow].put(index, (byte) (ryb >> 8));
+                            planes[RYBConverter.iBlue].put(index, (byte) ryb);
+                        }
+                    }
+                }
+            }
+            for (MappedByteBuffer plane : planes) {
+                plane.force();
+            }
+        } catch (IOException | RuntimeException e) {
+            fileTemp.delete();
+            throw e;
+        }
+        if (!fileTemp.renameTo(file)) {
+            fileTemp.delete();
+            throw new IOException("Could not move planes to " + file);
+        }
+    }
+
+    /**
+     * Planes stored under the key, mapped rather than read, or null if none or made by another
+     * version. Summed-area tables stored with them are left out.
+     */
+    public MappedRYBPlanes mapTiled(String key) throws IOException {
+        File file = getFile(key);
+        if (!file.isFile() || file.length() < SIZE_HEADER) {
+            return null;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SIZE_HEADER)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC
+                    || header.getInt() != VERSION_FORMAT
+                    || header.getInt() != RYBConverter.ALGORITHM_VERSION) {
+                return null;
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            int flags = header.getInt();
+            long sizePlane = (long) width * height;
+            if (width <= 0 || height <= 0 || sizePlane > Integer.MAX_VALUE
+                    || channel.size() != getSizeBytes(width, height, (flags & FLAG_INTEGRAL) != 0)) {
+                return null;
+            }
+            // Mappings stay valid once the channel is closed
+            ByteBuffer[] planes = new ByteBuffer[RYBPlanes.NUM_CHANNEL];
+            for (int c = 0; c < RYBPlanes.NUM_CHANNEL; c++) {
+                planes[c] = channel.map(FileChannel.MapMode.READ_ONLY, SIZE_HEADER + c * sizePlane,
+                        sizePlane);
+            }
+            return new MappedRYBPlanes(width, height, planes);
+        }
+    }
+
+    /**
+     * SHA-256 of the stream in hex, e.g. of the image file the planes are converted from, to key
+     * them by.
+     */
+    public static String getHash(InputStream is) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[1 << 16];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private File getFile(String key) {
+        return new File(directory, key + EXTENSION);
+    }
+
+    private static long getSizePlanes(int width, int height) {
+        return ((long) RYBPlanes.NUM_CHANNEL * width * height + 3) & ~3; // Sums aligned for mapping
+    }
+
+    private static long getSizeBytes(int width, int height, boolean hasIntegral) {
+        long size = SIZE_HEADER + getSizePlanes(width, height);
+        if (hasIntegral) {
+            size += 4L * RYBPlanes.NUM_CHANNEL * RYBIntegralImage.getLengthSums(width, height);
+        }
+        return size;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Whole painting statistics of the RYB planes: a 256 bin histogram of each channel, and a
+ * downsampled map of each channel's mean intensity, in cells of cellSize x cellSize pixels.
+ *
+ * <p>Computed in one pass, split into bands of cell rows run in parallel. Each band counts into a
+ * histogram of its own, merged once all are done, and sums the cells of its own rows, so no
+ * counter is shared between threads.
+ */
+public class RYBStatistics {
+    public static final int NUM_BIN = 256;
+    public static final int SIDE_HEATMAP_DEFAULT = 128; // Cells along the longer side
+
+    private final int[][] histograms; // Indexed by channel, then value
+    private final int cellSize;
+    private final int widthHeatmap, heightHeatmap;
+    private final int[][] heatmaps; // Indexed by channel, means of the cells in row-major order
+
+    private RYBStatistics(int[][] histograms, int cellSize, int widthHeatmap, int heightHeatmap,
+                          int[][] heatmaps) {
+        this.histograms = histograms;
+        this.cellSize = cellSize;
+        this.widthHeatmap = widthHeatmap;
+        this.heightHeatmap = heightHeatmap;
+        this.heatmaps = heatmaps;
+    }
+
+    public static RYBStatistics compute(RYBPlanes planes) {
+        return compute(planes, SIDE_HEATMAP_DEFAULT, ForkJoinPool.commonPool(),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param sideHeatmap most cells along the longer side of the painting
+     * @param numBands    parts run in parallel, about the number of threads of the executor
+     */
+    public static RYBStatistics compute(RYBPlanes planes, int sideHeatmap, Executor executor,
+                                        int numBands) {
+        int width = planes.getWidth(), height = planes.getHeight();
+        int cellSize = Math.max(1, (Math.max(width, height) + sideHeatmap - 1) / sideHeatmap);
+        int widthHeatmap = (width + cellSize - 1) / cellSize;
+        int heightHeatmap = (height + cellSize - 1) / cellSize;
+        int[][] sums = new int[RYBPlanes.NUM_CHANNEL][widthHeatmap * heightHeatmap];
+
+        numBands = Math.max(1, Math.min(numBands, heightHeatmap));
+        List<CompletableFuture<int[][]>> bands = new ArrayList<>(numBands);
+        for (int iBand = 0; iBand < numBands; iBand++) {
+            int rowStart = heightHeatmap * iBand / numBands;
+            int rowEnd = heightHeatmap * (iBand + 1) / numBands;
+            bands.add(CompletableFuture.supplyAsync(
+                    () -> computeBand(planes, cellSize, widthHeatmap, rowStart, rowEnd, sums), executor));
+        }
+
+        int[][] histograms = new int[RYBPlanes.NUM_CHANNEL][NUM_BIN];
+        for (CompletableFuture<int[][]> band : bands) {
+            int[][] histogramsBand = band.join();
+            for (int c = 0; c < RYBPlanes.NUM_CHANNEL; c++) {
+                for (int bin = 0; bin < NUM_BIN; bin++) {
+                    histograms[c][bin] += histogramsBand[c][bin];
+                }
+            }
+        }
+
+        // Cells on the right and bottom edges may be cut short by the painting
+        int[][] heatmaps = new int[RYBPlanes.NUM_CHANNEL][widthHeatmap * heightHeatmap];
+        for (int row = 0; row < heightHeatmap; row++) {
+            int heightCell = Math.min(cellSize, height - row * cellSize);
+            for (int col = 0; col < widthHeatmap; col++) {
+                int area = heightCell * Math.min(cellSize, width - col * cellSize);
+                int i = row * widthHeatmap + col;
+                for (int c = 0; c < RYBPlanes.NUM_CHANNEL; c++) {
+                    heatmaps[c][i] = (sums[c][i] + area / 2) / area;
+                }
+            }
+        }
+        return new RYBStatistics(histograms, cellSize, widthHeatmap, heightHeatmap, heatmaps);
+    }
+
+    // Cell rows from rowStart to rowEnd, excluded. Sums go straight into the band's own rows.
+    private static int[][] computeBand(RYBPlanes planes, int cellSize, int widthHeatmap,
+                                       int rowStart, int rowEnd, int[][] sums) {
+        int width = planes.getWidth();
+        int yEnd = Math.min(planes.getHeight(), rowEnd * cellSize);
+        int[][] histograms = new int[RYBPlanes.NUM_CHANNEL][NUM_BIN];
+        for (int c = 0; c < RYBPlanes.NUM_CHANNEL; c++) {
+            byte[] plane = planes.getPlane(c);
+            int[] histogram = histograms[c];
+            int[] sum = sums[c];
+            for (int y = rowStart * cellSize; y < yEnd; y++) {
+                int iRowCells = y / cellSize * widthHeatmap;
+                int i = y * width;
+                for (int col = 0, x = 0; x < width; col++) {
+                    int xEnd = Math.min(width, x + cellSize);
+                    int sumCell = 0;
+                    for (; x < xEnd; x++, i++) {
+                        int value = plane[i] & 0xFF;
+                        histogram[value]++;
+                        sumCell += value;
+                    }
+                    sum[iRowCells + col] += sumCell;
+                }
+            }
+        }
+        return histograms;
+    }
+
+    public int[] getHistogram(int channel) {
+        return histograms[channel];
+    }
+
+    // Count of the most common value of the channel
+    public int getMaxCount(int channel) {
+        int max = 0;
+        for (int count : histograms[channel]) {
+            max = Math.max(max, count);
+        }
+        return max;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    public int getWidthHeatmap() {
+        return widthHeatmap;
+    }
+
+    public int getHeightHeatmap() {
+        return heightHeatmap;
+    }
+
+    public int[] getHeatmap(int channel) {
+        return heatmaps[channel];
+    }
+
+    public long getSizeBytes() {
+        return 4L * RYBPlanes.NUM_CHANNEL * (NUM_BIN + widthHeatmap * heightHeatmap);
+    }
+}
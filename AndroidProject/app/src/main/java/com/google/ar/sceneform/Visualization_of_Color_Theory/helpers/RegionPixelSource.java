@@ -0,0 +1,66 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Image decoded a region at a time with BitmapRegionDecoder, for paintings too large to decode
+ * whole. Regions of the same size are decoded into the same bitmap. Not thread safe.
+ */
+public class RegionPixelSource implements PixelSource, Closeable {
+    private final BitmapRegionDecoder decoder;
+    private final BitmapFactory.Options options = new BitmapFactory.Options();
+    private final Rect rect = new Rect();
+
+    public RegionPixelSource(InputStream is) throws IOException {
+        decoder = BitmapRegionDecoder.newInstance(is, false);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+    }
+
+    @Override
+    public int getWidth() {
+        return decoder.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return decoder.getHeight();
+    }
+
+    @Override
+    public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        Bitmap reused = options.inBitmap;
+        if (reused != null && (reused.getWidth() != width || reused.getHeight() != height)) {
+            options.inBitmap = null; // Edge tiles, decoded on their own
+        }
+        rect.set(x, y, x + width, y + height);
+        Bitmap region = decoder.decodeRegion(rect, options);
+        if (region == null) {
+            throw new UncheckedIOException(new IOException("Could not decode region " + rect));
+        }
+        region.getPixels(pixels, offset, stride, 0, 0, width, height);
+        if (options.inBitmap == null && reused == null) {
+            options.inBitmap = region; // Kept for the next region of this size
+        } else if (region != options.inBitmap) {
+            region.recycle();
+            options.inBitmap = reused;
+        }
+    }
+
+    @Override
+    public void close() {
+        decoder.recycle();
+        if (options.inBitmap != null) {
+            options.inBitmap.recycle();
+            options.inBitmap = null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+// Decoding and pooling need BitmapFactory, so only the sampling is covered on the JVM
+public class BitmapCacheTest {
+    @Test
+    public void keepsFullResolutionWithoutSideMin() {
+        assertEquals(1, BitmapCache.getSampleSize(4000, 3000, 0));
+    }
+
+    @Test
+    public void keepsShorterSideAtLeastSideMin() {
+        assertEquals(2, BitmapCache.getSampleSize(4000, 3000, 1024)); // 1500 short side
+        assertEquals(2, BitmapCache.getSampleSize(3000, 4000, 1500));
+        assertEquals(1, BitmapCache.getSampleSize(3000, 4000, 1501));
+        assertEquals(8, BitmapCache.getSampleSize(4096, 4096, 512));
+    }
+
+    @Test
+    public void neverSamplesImagesSmallerThanSideMin() {
+        assertEquals(1, BitmapCache.getSampleSize(300, 200, 1024));
+    }
+}
@@ -0,0 +1,102 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Expected values are those of scipy.ndimage.convolve(a, np.ones((side, side)), mode="reflect"),
+ * as image_factory.py convolves, worked out for small arrays.
+ */
+public class BoxFilterTest {
+    private static final byte[] NINE = bytes(1, 2, 3, 4, 5, 6, 7, 8, 9); // 3x3
+
+    private final BoxFilter filter = new BoxFilter();
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    @Test
+    public void sumsOddSide() {
+        assertArrayEquals(new int[] {21, 27, 33, 39, 45, 51, 57, 63, 69},
+                filter.sumRegion(NINE, 3, 3, 3));
+    }
+
+    // The window of an even side is one longer after the center, as convolve() shifts it
+    @Test
+    public void sumsEvenSide() {
+        assertArrayEquals(new int[] {12, 16, 18, 24, 28, 30, 30, 34, 36},
+                filter.sumRegion(NINE, 3, 3, 2));
+    }
+
+    // Reflected more than once past the edges
+    @Test
+    public void sumsSideLongerThanImage() {
+        assertArrayEquals(new int[] {105, 110, 115, 120, 125, 130, 135, 140, 145},
+                filter.sumRegion(NINE, 3, 3, 5));
+    }
+
+    @Test
+    public void removesIllumination() {
+        byte[] plane = bytes(10, 200, 30, 40, 50, 60, 250, 80); // 4x2, sums of 3x3 are
+        // 600, 840, 930, 630, 540, 960, 1050, 930
+        assertArrayEquals(bytes(0, 106, 0, 0, 0, 0, 133, 0),
+                filter.removeIllumination(plane, 4, 2, 3));
+        assertArrayEquals(bytes(66, 93, 103, 70, 60, 106, 116, 103),
+                filter.averageRegion(plane, 4, 2, 3));
+    }
+
+    // Larger and in parallel, against the sum of each window reflected pixel by pixel
+    @Test
+    public void matchesBruteForce() {
+        int width = 211, height = 97;
+        Random random = new Random(19);
+        byte[] plane = new byte[width * height];
+        random.nextBytes(plane);
+        BoxFilter filterPool = new BoxFilter(new ForkJoinPool(3));
+        for (int side : new int[] {1, 2, 7, 16, 120}) {
+            int before = (side - 1) / 2, after = side / 2;
+            int[] expected = new int[width * height];
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    int sum = 0;
+                    for (int r = row - before; r <= row + after; r++) {
+                        for (int c = col - before; c <= col + after; c++) {
+                            sum += plane[reflect(r, height) * width + reflect(c, width)] & 0xFF;
+                        }
+                    }
+                    expected[row * width + col] = sum;
+                }
+            }
+            assertArrayEquals("Side " + side, expected, filterPool.sumRegion(plane, width, height, side));
+        }
+    }
+
+    // d c b a | a b c d | d c b a
+    private static int reflect(int index, int length) {
+        while (index < 0 || index >= length) {
+            index = index < 0 ? -index - 1 : 2 * length - index - 1;
+        }
+        return index;
+    }
+
+    @Test
+    public void keepsAlphaOfPixels() {
+        int[] argb = {0x80FFFFFF, 0x80FFFFFF, 0x80FFFFFF, 0x80FFFFFF};
+        filter.removeIllumination(argb, 2, 2, 3);
+        assertArrayEquals(new int[] {0x80000000, 0x80000000, 0x80000000, 0x80000000}, argb);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSideZero() {
+        filter.sumRegion(NINE, 3, 3, 0);
+    }
+}
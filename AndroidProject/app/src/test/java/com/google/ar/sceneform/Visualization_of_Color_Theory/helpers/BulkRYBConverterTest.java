@@ -0,0 +1,79 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class BulkRYBConverterTest {
+    // Tall enough for many bands over several threads, width odd so rows don't line up with them
+    private static final int WIDTH = 37, HEIGHT = 1001;
+
+    private static final ForkJoinPool pool = new ForkJoinPool(3);
+
+    @AfterClass
+    public static void tearDown() {
+        pool.shutdown();
+    }
+
+    private static int[] makePixels(int length) {
+        Random random = new Random(42);
+        int[] argb = new int[length];
+        for (int i = 0; i < length; i++) {
+            argb[i] = random.nextInt();
+        }
+        return argb;
+    }
+
+    @Test
+    public void convertsInPlace() {
+        int[] argb = makePixels(WIDTH * HEIGHT);
+        int[] aryb = argb.clone();
+        new BulkRYBConverter(pool, ColorConverter.DIRECT).convertInPlace(aryb, WIDTH, HEIGHT);
+        for (int i = 0; i < argb.length; i++) {
+            assertEquals("Pixel " + i, RYBConverter.getRYB(argb[i]), aryb[i]);
+        }
+    }
+
+    @Test
+    public void convertsToPlanes() {
+        int[] argb = makePixels(WIDTH * HEIGHT);
+        int[] copy = argb.clone();
+        RYBPlanes planes = new BulkRYBConverter(pool, ColorConverter.DIRECT)
+                .convertToPlanes(argb, WIDTH, HEIGHT);
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                int aryb = RYBConverter.getRYB(argb[row * WIDTH + col]);
+                for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+                    assertEquals(RYBConverter.channel(aryb, channel), planes.get(channel, row, col));
+                }
+            }
+        }
+        assertEquals(copy[0], argb[0]); // Left untouched
+        assertEquals(copy[argb.length - 1], argb[argb.length - 1]);
+    }
+
+    @Test
+    public void usesGivenConverter() {
+        int[] argb = makePixels(WIDTH * HEIGHT);
+        new BulkRYBConverter(pool, color -> 0x01020304).convertInPlace(argb, WIDTH, HEIGHT);
+        for (int color : argb) {
+            assertEquals(0x01020304, color);
+        }
+    }
+
+    @Test
+    public void convertsEmptyImage() {
+        RYBPlanes planes = new BulkRYBConverter(pool, ColorConverter.DIRECT)
+                .convertToPlanes(new int[0], 0, 0);
+        assertEquals(0, planes.getWidth());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsShortArray() {
+        new BulkRYBConverter(pool, ColorConverter.DIRECT).convertInPlace(new int[10], 4, 3);
+    }
+}
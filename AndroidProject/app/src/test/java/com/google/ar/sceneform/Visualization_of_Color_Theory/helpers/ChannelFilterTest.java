@@ -0,0 +1,67 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChannelFilterTest {
+    @Test
+    public void filtersRed() {
+        int red = 0xFFFF0000; // RYB red, converted twice
+        assertEquals(0xFFFF0000, ChannelFilter.filter(red, ChannelFilter.iRed));
+        assertEquals(0xFF000000, ChannelFilter.filter(red, ChannelFilter.iYellow));
+        assertEquals(0xFF000000, ChannelFilter.filter(red, ChannelFilter.iBlue));
+        assertEquals(0xFFFF0000, ChannelFilter.filter(red, ChannelFilter.iPurple));
+    }
+
+    // Green is RYB 0, 255, 255 once, and 0, 127, 255 converted again as the script does
+    @Test
+    public void filtersGreen() {
+        int green = 0xFF00FF00;
+        assertEquals(0xFF000000, ChannelFilter.filter(green, ChannelFilter.iRed));
+        assertEquals(0xFF7F7F00, ChannelFilter.filter(green, ChannelFilter.iYellow));
+        assertEquals(0xFF0000FF, ChannelFilter.filter(green, ChannelFilter.iBlue));
+        // Yellow 127 + 0.4 * 255 = 229, red 0.7 of that
+        assertEquals(0xFFA0E5FF, ChannelFilter.filter(green, ChannelFilter.iGreen));
+        assertEquals(0xFF7F7F00, ChannelFilter.filter(green, ChannelFilter.iOrange));
+        assertEquals(0xFF0000E5, ChannelFilter.filter(green, ChannelFilter.iPurple));
+    }
+
+    @Test
+    public void keepsAlpha() {
+        assertEquals(0x80FF0000, ChannelFilter.filter(0x80FF0000, ChannelFilter.iRed));
+    }
+
+    // Both bulk paths against filter() of each pixel, which converts with RYBConverter
+    @Test
+    public void appliesInBulk() {
+        int width = 31, height = 17;
+        Random random = new Random(5);
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = random.nextInt();
+        }
+        int[] rybOnce = argb.clone();
+        new BulkRYBConverter().convertInPlace(rybOnce, width, height);
+        int[] ryb = rybOnce.clone();
+        new BulkRYBConverter().convertInPlace(ryb, width, height);
+        int[] out = new int[argb.length];
+        for (int iFilter = 0; iFilter < ChannelFilter.NUM_FILTER; iFilter++) {
+            int[] filtered = argb.clone();
+            ChannelFilter.apply(filtered, width, height, iFilter);
+            ChannelFilter.apply(rybOnce, ryb, out, iFilter);
+            for (int i = 0; i < argb.length; i++) {
+                int expected = ChannelFilter.filter(argb[i], iFilter);
+                assertEquals(expected, filtered[i]);
+                assertEquals(expected, out[i]);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownFilter() {
+        ChannelFilter.apply(new int[4], 2, 2, ChannelFilter.NUM_FILTER);
+    }
+}
@@ -0,0 +1,197 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatestRequestLoaderTest {
+    private static final long TIMEOUT_S = 10;
+
+    private ExecutorService worker;
+    // Thrown out of the worker's tasks, which on Android would kill the app
+    private final List<Throwable> uncaught = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> failed = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setUncaughtExceptionHandler((t, e) -> uncaught.add(e));
+            return thread;
+        });
+    }
+
+    @After
+    public void tearDown() {
+        worker.shutdownNow();
+        assertEquals(Collections.emptyList(), uncaught);
+    }
+
+    private void onError(int request, RuntimeException e) {
+        failed.add(request);
+    }
+
+    // Waits for everything queued on the worker so far to run
+    private void awaitWorker() throws Exception {
+        worker.submit(() -> {}).get(TIMEOUT_S, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void deliversLatestRequest() throws Exception {
+        List<Integer> delivered = new ArrayList<>();
+        LatestRequestLoader<Integer, Integer> loader = new LatestRequestLoader<>(worker, Runnable::run,
+                (request, isStale) -> request * 2, (request, result) -> delivered.add(result),
+                this::onError);
+        loader.submit(1);
+        awaitWorker();
+        loader.submit(2);
+        awaitWorker();
+        assertEquals(2, delivered.size());
+        assertEquals(4, (int) delivered.get(1));
+    }
+
+    @Test
+    public void cancelDropsResultInFlight() throws Exception {
+        CountDownLatch isComputing = new CountDownLatch(1), isCancelled = new CountDownLatch(1);
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+        LatestRequestLoader<Integer, Integer> loader = new LatestRequestLoader<>(worker, Runnable::run,
+                (request, isStale) -> {
+                    if (request == 1) {
+                        isComputing.countDown();
+                        await(isCancelled);
+                    }
+                    return request;
+                }, (request, result) -> delivered.add(result), this::onError);
+        loader.submit(1);
+        assertTrue(isComputing.await(TIMEOUT_S, TimeUnit.SECONDS));
+        loader.cancel();
+        isCancelled.countDown();
+        awaitWorker();
+        assertTrue(delivered.isEmpty());
+        loader.submit(2);
+        awaitWorker();
+        assertEquals(Collections.singletonList(2), delivered);
+    }
+
+    // The request submitted while one throws still runs, and so do later ones; the exception is
+    // delivered instead of thrown on the worker
+    @Test
+    public void runsRequestsAfterException() throws Exception {
+        CountDownLatch isComputing = new CountDownLatch(1), isSubmitted = new CountDownLatch(1);
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+        LatestRequestLoader<Integer, Integer> loader = new LatestRequestLoader<>(worker, Runnable::run,
+                (request, isStale) -> {
+                    if (request == 1) {
+                        isComputing.countDown();
+                        await(isSubmitted);
+                        throw new IllegalStateException("Failed on purpose");
+                    }
+                    return request;
+                }, (request, result) -> delivered.add(result), this::onError);
+        loader.submit(1);
+        assertTrue(isComputing.await(TIMEOUT_S, TimeUnit.SECONDS));
+        loader.submit(2);
+        isSubmitted.countDown();
+        awaitWorker();
+        assertEquals(Collections.singletonList(2), delivered);
+        // Went stale, so not delivered
+        assertEquals(Collections.emptyList(), failed);
+        loader.submit(3);
+        awaitWorker();
+        assertEquals(3, (int) delivered.get(delivered.size() - 1));
+    }
+
+    @Test
+    public void deliversException() throws Exception {
+        List<Integer> delivered = new ArrayList<>();
+        List<RuntimeException> errors = new ArrayList<>();
+        LatestRequestLoader<Integer, Integer> loader = new LatestRequestLoader<>(worker, Runnable::run,
+                (request, isStale) -> {
+                    if (request == 1) {
+                        throw new IllegalStateException("Failed on purpose");
+                    }
+                    return request;
+                }, (request, result) -> delivered.add(result), (request, e) -> {
+                    failed.add(request);
+                    errors.add(e);
+                });
+        loader.submit(1);
+        awaitWorker();
+        assertEquals(Collections.singletonList(1), failed);
+        assertEquals("Failed on purpose", errors.get(0).getMessage());
+        loader.submit(2);
+        awaitWorker();
+        assertEquals(Collections.singletonList(2), delivered);
+        assertEquals(Collections.singletonList(1), failed);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Requests submitted from several threads while the worker drains, the last one is always
+    // delivered and nothing after it
+    @Test
+    public void deliversLastOfConcurrentSubmits() throws Exception {
+        int numThreads = 4, numRounds = 1000, numSubmits = 500;
+        ExecutorService submitters = Executors.newFixedThreadPool(numThreads);
+        try {
+            for (int round = 0; round < numRounds; round++) {
+                int last = -1 - round;
+                CountDownLatch isLastDelivered = new CountDownLatch(1);
+                AtomicInteger numAfterLast = new AtomicInteger();
+                LatestRequestLoader<Integer, Integer> loader = new LatestRequestLoader<>(worker,
+                        Runnable::run, (request, isStale) -> request, (request, result) -> {
+                            if (isLastDelivered.getCount() == 0) {
+                                numAfterLast.incrementAndGet();
+                            }
+                            if (result == last) {
+                                isLastDelivered.countDown();
+                            }
+                        }, this::onError);
+                CyclicBarrier barrier = new CyclicBarrier(numThreads + 1);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < numThreads; t++) {
+                    futures.add(submitters.submit(() -> {
+                        barrier.await();
+                        for (int i = 0; i < numSubmits; i++) {
+                            loader.submit(i);
+                        }
+                        return null;
+                    }));
+                }
+                barrier.await();
+                for (Future<?> future : futures) {
+                    future.get(TIMEOUT_S, TimeUnit.SECONDS);
+                }
+                for (int i = 0; i < numSubmits; i++) { // So the worker is still draining
+                    loader.submit(i);
+                }
+                loader.submit(last);
+                assertTrue("Round " + round, isLastDelivered.await(TIMEOUT_S, TimeUnit.SECONDS));
+                awaitWorker();
+                assertEquals(0, numAfterLast.get());
+            }
+        } finally {
+            submitters.shutdownNow();
+        }
+    }
+}
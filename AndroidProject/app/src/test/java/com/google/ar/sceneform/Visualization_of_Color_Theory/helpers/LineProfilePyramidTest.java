@@ -0,0 +1,90 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LineProfilePyramidTest {
+    private static final int LENGTH = 1000; // Not a power of 2, so the last buckets are partial
+
+    private int[] line;
+    private LineProfilePyramid pyramid;
+    private final float[] xs = new float[LENGTH];
+    private final int[] ys = new int[LENGTH];
+
+    // A row of a painting as the chart profiles it, converted pixel by pixel
+    @Before
+    public void setUp() {
+        Random random = new Random(3);
+        int[] argb = new int[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            argb[i] = random.nextInt();
+        }
+        line = LineProfiles.getLine(new ArrayPixelSource(argb, LENGTH, 1), true, 0,
+                RYBConverter.iYellow, RYBConverter::getRYB);
+        pyramid = new LineProfilePyramid(line);
+    }
+
+    @Test
+    public void keepsFullDetailThatFits() {
+        int count = pyramid.getEnvelope(100, 199, 100, xs, ys);
+        assertEquals(100, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(100 + i, xs[i], 0);
+            assertEquals(line[100 + i], ys[i]);
+        }
+    }
+
+    @Test
+    public void envelopeKeepsExtremes() {
+        for (int maxPoints : new int[] {2, 10, 64, 301}) {
+            for (int[] range : new int[][] {{0, LENGTH - 1}, {13, 977}, {500, 999}}) {
+                int count = pyramid.getEnvelope(range[0], range[1], maxPoints, xs, ys);
+                assertTrue(count <= maxPoints);
+                int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+                for (int x = range[0]; x <= range[1]; x++) {
+                    min = Math.min(min, line[x]);
+                    max = Math.max(max, line[x]);
+                }
+                int minEnvelope = Integer.MAX_VALUE, maxEnvelope = Integer.MIN_VALUE;
+                for (int i = 0; i < count; i++) {
+                    assertEquals(line[(int) xs[i]], ys[i]); // At its own x
+                    assertTrue(i == 0 || xs[i] > xs[i - 1]); // In order
+                    minEnvelope = Math.min(minEnvelope, ys[i]);
+                    maxEnvelope = Math.max(maxEnvelope, ys[i]);
+                }
+                // Edge buckets may reach past the range, never short of its extremes
+                assertTrue(minEnvelope <= min);
+                assertTrue(maxEnvelope >= max);
+            }
+        }
+    }
+
+    @Test
+    public void averagesBuckets() {
+        int maxPoints = 50;
+        int count = pyramid.getAverages(0, LENGTH - 1, maxPoints, xs, ys);
+        assertTrue(count <= maxPoints);
+        int size = (LENGTH + count - 1) / count; // Buckets of the level chosen, all but the last full
+        for (int b = 0; b < count; b++) {
+            int start = b * size, end = Math.min(start + size, LENGTH);
+            int sum = 0;
+            for (int x = start; x < end; x++) {
+                sum += line[x];
+            }
+            assertEquals(sum / (end - start), ys[b]);
+            assertEquals(start + (end - start - 1) / 2f, xs[b], 0);
+        }
+    }
+
+    @Test
+    public void handlesSinglePoint() {
+        LineProfilePyramid single = new LineProfilePyramid(new int[] {42});
+        assertEquals(1, single.getEnvelope(0, 0, 1, xs, ys));
+        assertEquals(42, ys[0]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RYBConverterTest {
+    @Test
+    public void convertsSample() {
+        // The sample of RYBConverter.main()
+        int[] ryb = RYBConverter.getRYB(new int[]{41, 204, 239});
+        assertEquals(RYBConverter.pack(0xFF, ryb[0], ryb[1], ryb[2]),
+                RYBConverter.getRYB(0xFF29CCEF));
+    }
+
+    @Test
+    public void convertsPrimaries() {
+        assertArrayEquals(new int[]{255, 0, 0}, RYBConverter.getRYB(new int[]{255, 0, 0}));
+        assertArrayEquals(new int[]{0, 255, 255}, RYBConverter.getRYB(new int[]{0, 255, 0}));
+        assertArrayEquals(new int[]{0, 0, 255}, RYBConverter.getRYB(new int[]{0, 0, 255}));
+        assertArrayEquals(new int[]{255, 255, 255}, RYBConverter.getRYB(new int[]{255, 255, 255}));
+    }
+
+    @Test
+    public void keepsAlpha() {
+        assertEquals(0x12, RYBConverter.getRYB(0x12336699) >>> 24);
+        assertEquals(0x00, RYBConverter.getRGB(0x00336699) >>> 24);
+    }
+
+    // The packed API against the array API, over every 24-bit input in both directions
+    @Test
+    public void packedMatchesArrays() {
+        int[] color = new int[3];
+        for (int c = 0; c <= 0xFFFFFF; c++) {
+            color[0] = (c >> 16) & 0xFF;
+            color[1] = (c >> 8) & 0xFF;
+            color[2] = c & 0xFF;
+            int argb = 0xFF000000 | c;
+            int[] ryb = RYBConverter.getRYB(color);
+            assertEquals(Integer.toHexString(c), RYBConverter.pack(0xFF, ryb[0], ryb[1], ryb[2]),
+                    RYBConverter.getRYB(argb));
+            for (int i = 0; i < 3; i++) {
+                assertEquals(Integer.toHexString(c), ryb[i],
+                        (int) RYBConverter.getRYBChannel(argb, i));
+            }
+            int[] rgb = RYBConverter.getRGB(color);
+            assertEquals(Integer.toHexString(c), RYBConverter.pack(0xFF, rgb[0], rgb[1], rgb[2]),
+                    RYBConverter.getRGB(argb));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RYBIntegralImageTest {
+    private static final int WIDTH = 53, HEIGHT = 41;
+
+    private ArrayPixelSource source;
+    private RYBPlanes planes;
+    private RYBIntegralImage integral;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(7);
+        int[] argb = new int[WIDTH * HEIGHT];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = random.nextInt();
+        }
+        source = new ArrayPixelSource(argb, WIDTH, HEIGHT);
+        planes = new BulkRYBConverter().convertToPlanes(argb.clone(), WIDTH, HEIGHT);
+        integral = planes.getIntegralImage();
+    }
+
+    @Test
+    public void sumsRectangles() {
+        Random random = new Random(11);
+        for (int n = 0; n < 500; n++) {
+            int channel = random.nextInt(RYBPlanes.NUM_CHANNEL);
+            int row0 = random.nextInt(HEIGHT), row1 = random.nextInt(HEIGHT);
+            int col0 = random.nextInt(WIDTH), col1 = random.nextInt(WIDTH);
+            int rowStart = Math.min(row0, row1), rowEnd = Math.max(row0, row1);
+            int colStart = Math.min(col0, col1), colEnd = Math.max(col0, col1);
+            int sum = 0;
+            for (int row = rowStart; row <= rowEnd; row++) {
+                for (int col = colStart; col <= colEnd; col++) {
+                    sum += planes.get(channel, row, col);
+                }
+            }
+            assertEquals(sum, integral.getSum(channel, rowStart, colStart, rowEnd, colEnd));
+            assertEquals(sum / ((rowEnd - rowStart + 1) * (colEnd - colStart + 1)),
+                    integral.getAvg(channel, rowStart, colStart, rowEnd, colEnd));
+        }
+    }
+
+    // Against segmenting the line converted pixel by pixel with RYBConverter
+    @Test
+    public void segmentsLikeLineProfiles() {
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            for (int unit : new int[] {0, 1, 2, 5, 7, 40}) {
+                for (int row : new int[] {0, 17, HEIGHT - 1}) {
+                    int[] line = LineProfiles.getLine(source, true, row, channel, RYBConverter::getRYB);
+                    assertArrayEquals(LineProfiles.segmentLine(line, unit),
+                            integral.getSegmentedLine(true, row, channel, unit));
+                }
+                for (int col : new int[] {0, 30, WIDTH - 1}) {
+                    int[] line = LineProfiles.getLine(source, false, col, channel, RYBConverter::getRYB);
+                    assertArrayEquals(LineProfiles.segmentLine(line, unit),
+                            integral.getSegmentedLine(false, col, channel, unit));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void averagesBlocks() {
+        int unit = 6;
+        int[][] blocks = integral.getBlockAvgs(RYBConverter.iRed, unit);
+        assertEquals(HEIGHT / unit, blocks.length);
+        assertEquals(WIDTH / unit, blocks[0].length);
+        // Segments span unit + 1 pixels, as in getSegmentedLine()
+        assertEquals(integral.getAvg(RYBConverter.iRed, 12, 18, 18, 24), blocks[2][3]);
+    }
+
+    // As the slider allows, like segmenting a line
+    @Test
+    public void keepsEveryPixelForUnit0() {
+        int[][] pixels = integral.getBlockAvgs(RYBConverter.iBlue, 0);
+        assertEquals(HEIGHT, pixels.length);
+        assertEquals(WIDTH, pixels[0].length);
+        assertEquals(integral.getAvg(RYBConverter.iBlue, 5, 7, 5, 7), pixels[5][7]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeUnit() {
+        integral.getBlockAvgs(RYBConverter.iRed, -1);
+    }
+
+    @Test
+    public void sumsPlanesOfWhite() {
+        RYBPlanes white = new BulkRYBConverter().convertToPlanes(new int[] {-1, -1, -1, -1}, 2, 2);
+        assertEquals(4 * 255, white.getIntegralImage().getSum(RYBConverter.iBlue, 0, 0, 1, 1));
+    }
+}
@@ -0,0 +1,58 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RYBLutTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void fullMatchesConverter() throws IOException {
+        RYBLut lut = RYBLut.load(folder.getRoot(), RYBLut.Precision.FULL);
+        for (int c = 0; c <= 0xFFFFFF; c++) {
+            int argb = 0xFF000000 | c;
+            assertEquals(Integer.toHexString(c), RYBConverter.getRYB(argb), lut.getRYB(argb));
+        }
+    }
+
+    @Test
+    public void quantizedIsClose() throws IOException {
+        RYBLut lut = RYBLut.load(folder.getRoot(), RYBLut.Precision.QUANTIZED_565);
+        for (int c = 0; c <= 0xFFFFFF; c += 7) { // Strided, every entry is still hit
+            int expected = RYBConverter.getRYB(c), actual = lut.getRYB(c);
+            for (int channel = 0; channel < 3; channel++) {
+                int error = Math.abs(RYBConverter.channel(expected, channel)
+                        - RYBConverter.channel(actual, channel));
+                assertTrue(Integer.toHexString(c) + " off by " + error, error <= 30);
+            }
+        }
+    }
+
+    @Test
+    public void keepsAlpha() throws IOException {
+        RYBLut lut = RYBLut.load(folder.getRoot(), RYBLut.Precision.QUANTIZED_565);
+        assertEquals(0x12, lut.getRYB(0x12336699) >>> 24);
+        assertEquals(0x00, lut.getRYB(0x00336699) >>> 24);
+    }
+
+    @Test
+    public void rebuildsDamagedTable() throws IOException {
+        RYBLut.load(folder.getRoot(), RYBLut.Precision.QUANTIZED_565);
+        File file = new File(folder.getRoot(), "ryb_quantized_565.lut");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.writeInt(0); // Magic
+        }
+        RYBLut lut = RYBLut.load(folder.getRoot(), RYBLut.Precision.QUANTIZED_565);
+        assertEquals(RYBConverter.getRYB(0xFF000000), lut.getRYB(0xFF000000));
+        assertEquals(RYBConverter.getRYB(0xFFFFFFFF), lut.getRYB(0xFFFFFFFF));
+    }
+}
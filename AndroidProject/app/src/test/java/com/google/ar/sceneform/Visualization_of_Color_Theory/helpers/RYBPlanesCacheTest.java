@@ -0,0 +1,112 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RYBPlanesCacheTest {
+    private static final int SIDE = 8; // Planes of 3 * 64 bytes
+
+    private static RYBPlanes makePlanes() {
+        return new RYBPlanes(SIDE, SIDE);
+    }
+
+    @Test
+    public void slicesLinesOfConvertedPixels() {
+        int width = 5, height = 3;
+        int[] argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = 0xFF000000 | i * 0x10F3A7;
+        }
+        RYBPlanes planes = new BulkRYBConverter().convertToPlanes(argb, width, height);
+        int[] row = planes.getRow(RYBConverter.iYellow, 2, new int[width]);
+        int[] column = planes.getColumn(RYBConverter.iBlue, 4, new int[height]);
+        for (int col = 0; col < width; col++) {
+            assertEquals(RYBConverter.channel(RYBConverter.getRYB(argb[2 * width + col]),
+                    RYBConverter.iYellow), row[col]);
+        }
+        for (int r = 0; r < height; r++) {
+            assertEquals(RYBConverter.channel(RYBConverter.getRYB(argb[r * width + 4]),
+                    RYBConverter.iBlue), column[r]);
+        }
+    }
+
+    @Test
+    public void loadsOncePerKey() {
+        RYBPlanesCache cache = new RYBPlanesCache(Long.MAX_VALUE, Runnable::run);
+        AtomicInteger numLoads = new AtomicInteger();
+        RYBPlanes planes = cache.get("a", () -> {
+            numLoads.incrementAndGet();
+            return makePlanes();
+        }).join();
+        assertSame(planes, cache.get("a", () -> {
+            numLoads.incrementAndGet();
+            return makePlanes();
+        }).join());
+        assertEquals(1, numLoads.get());
+        assertEquals(planes.getSizeBytes(), cache.getSizeBytes());
+    }
+
+    @Test
+    public void sharesLoadInFlight() {
+        List<Runnable> queued = new ArrayList<>();
+        Executor executor = queued::add;
+        RYBPlanesCache cache = new RYBPlanesCache(Long.MAX_VALUE, executor);
+        CompletableFuture<RYBPlanes> first = cache.get("a", RYBPlanesCacheTest::makePlanes);
+        CompletableFuture<RYBPlanes> second = cache.get("a", RYBPlanesCacheTest::makePlanes);
+        assertSame(first, second);
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    public void dropsFailedLoad() {
+        RYBPlanesCache cache = new RYBPlanesCache(Long.MAX_VALUE, Runnable::run);
+        CompletableFuture<RYBPlanes> failed = cache.get("a", () -> {
+            throw new IllegalStateException("Decode failed");
+        });
+        assertTrue(failed.isCompletedExceptionally());
+        CompletableFuture<RYBPlanes> retried = cache.get("a", RYBPlanesCacheTest::makePlanes);
+        assertNotSame(failed, retried);
+        assertEquals(makePlanes().getSizeBytes(), cache.getSizeBytes());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        long sizePlanes = makePlanes().getSizeBytes();
+        RYBPlanesCache cache = new RYBPlanesCache(2 * sizePlanes, Runnable::run);
+        RYBPlanes a = cache.get("a", RYBPlanesCacheTest::makePlanes).join();
+        cache.get("b", RYBPlanesCacheTest::makePlanes).join();
+        assertSame(a, cache.get("a", RYBPlanesCacheTest::makePlanes).join()); // b now the oldest
+        cache.get("c", RYBPlanesCacheTest::makePlanes).join();
+        assertEquals(2 * sizePlanes, cache.getSizeBytes());
+        assertSame(a, cache.get("a", RYBPlanesCacheTest::makePlanes).join());
+        AtomicInteger numLoads = new AtomicInteger();
+        cache.get("b", () -> {
+            numLoads.incrementAndGet();
+            return makePlanes();
+        }).join();
+        assertEquals(1, numLoads.get());
+    }
+
+    @Test
+    public void keepsMostRecentOverBudget() {
+        RYBPlanesCache cache = new RYBPlanesCache(1, Runnable::run);
+        RYBPlanes a = cache.get("a", RYBPlanesCacheTest::makePlanes).join();
+        assertEquals(a.getSizeBytes(), cache.getSizeBytes());
+        cache.setBudgetBytes(0);
+        assertSame(a, cache.get("a", RYBPlanesCacheTest::makePlanes).join());
+        cache.clear();
+        assertEquals(0, cache.getSizeBytes());
+    }
+}
@@ -0,0 +1,153 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class RYBPlanesStoreTest {
+    private static final int WIDTH = 45, HEIGHT = 29; // 3 planes not a multiple of 4 bytes
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private int[] argb;
+    private RYBPlanesStore store;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(13);
+        argb = new int[WIDTH * HEIGHT];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = random.nextInt();
+        }
+        store = new RYBPlanesStore(new File(folder.getRoot(), "planes")); // Made on first write
+    }
+
+    private RYBPlanes convert() {
+        return new BulkRYBConverter().convertToPlanes(argb.clone(), WIDTH, HEIGHT);
+    }
+
+    // Every pixel of the planes against RYBConverter
+    private void assertConverted(RYBPlanes planes) {
+        assertEquals(WIDTH, planes.getWidth());
+        assertEquals(HEIGHT, planes.getHeight());
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                int aryb = RYBConverter.getRYB(argb[row * WIDTH + col]);
+                for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+                    assertEquals(RYBConverter.channel(aryb, channel), planes.get(channel, row, col));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void readsBackPlanes() throws IOException {
+        store.write("painting", convert());
+        RYBPlanes planes = store.read("painting");
+        assertConverted(planes);
+        assertNull(planes.getIntegralImageIfBuilt());
+    }
+
+    @Test
+    public void readsBackSummedAreaTables() throws IOException {
+        RYBPlanes written = convert();
+        RYBIntegralImage integral = written.getIntegralImage();
+        store.write("painting", written);
+        RYBPlanes planes = store.read("painting");
+        assertConverted(planes);
+        RYBIntegralImage integralRead = planes.getIntegralImageIfBuilt();
+        assertNotNull(integralRead);
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            assertEquals(integral.getSum(channel, 0, 0, HEIGHT - 1, WIDTH - 1),
+                    integralRead.getSum(channel, 0, 0, HEIGHT - 1, WIDTH - 1));
+            assertEquals(integral.getSum(channel, 3, 7, 20, 40),
+                    integralRead.getSum(channel, 3, 7, 20, 40));
+        }
+    }
+
+    @Test
+    public void ignoresMissingOrOtherVersions() throws IOException {
+        assertNull(store.read("painting"));
+        store.write("painting", convert());
+        File file = new File(new File(folder.getRoot(), "planes"), "painting" + RYBPlanesStore.EXTENSION);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(8); // RYBConverter.ALGORITHM_VERSION
+            raf.writeInt(Integer.reverseBytes(RYBConverter.ALGORITHM_VERSION + 1));
+        }
+        assertNull(store.read("painting"));
+        store.write("painting", convert()); // Overwritten
+        assertConverted(store.read("painting"));
+    }
+
+    @Test
+    public void ignoresTruncatedFile() throws IOException {
+        store.write("painting", convert());
+        File file = new File(new File(folder.getRoot(), "planes"), "painting" + RYBPlanesStore.EXTENSION);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 1);
+        }
+        assertNull(store.read("painting"));
+    }
+
+    // Tiles cut short on the right and bottom edges, read back through the maps
+    @Test
+    public void mapsPlanesConvertedByTiles() throws IOException {
+        store.writeTiled("scan", new ArrayPixelSource(argb, WIDTH, HEIGHT), 16, ColorConverter.DIRECT);
+        MappedRYBPlanes planes = store.mapTiled("scan");
+        assertEquals(WIDTH, planes.getWidth());
+        assertEquals(HEIGHT, planes.getHeight());
+        int[] row = new int[WIDTH], column = new int[HEIGHT];
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            for (int r = 0; r < HEIGHT; r++) {
+                planes.getRow(channel, r, row);
+                for (int col = 0; col < WIDTH; col++) {
+                    int aryb = RYBConverter.getRYB(argb[r * WIDTH + col]);
+                    assertEquals(RYBConverter.channel(aryb, channel), row[col]);
+                    assertEquals(row[col], planes.get(channel, r, col));
+                }
+            }
+            planes.getColumn(channel, WIDTH - 1, column);
+            for (int r = 0; r < HEIGHT; r++) {
+                assertEquals(planes.get(channel, r, WIDTH - 1), column[r]);
+            }
+        }
+        assertConverted(store.read("scan")); // Same format as written whole
+    }
+
+    @Test
+    public void stopsTilesWhenInterrupted() throws IOException {
+        Thread.currentThread().interrupt();
+        try {
+            store.writeTiled("scan", new ArrayPixelSource(argb, WIDTH, HEIGHT), 16,
+                    ColorConverter.DIRECT);
+            fail("Not interrupted");
+        } catch (InterruptedIOException | ClosedByInterruptException expected) {
+            // Nothing left behind to map
+        } finally {
+            Thread.interrupted();
+        }
+        assertNull(store.mapTiled("scan"));
+    }
+
+    @Test
+    public void hashesWithSha256() throws IOException {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                RYBPlanesStore.getHash(new ByteArrayInputStream("abc".getBytes(StandardCharsets.UTF_8))));
+    }
+}
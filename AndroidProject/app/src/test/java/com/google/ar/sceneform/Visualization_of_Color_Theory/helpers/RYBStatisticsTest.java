@@ -0,0 +1,62 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.helpers;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RYBStatisticsTest {
+    // Width and height not multiples of the cell, so edge cells are cut short
+    private static final int WIDTH = 103, HEIGHT = 61, SIDE_HEATMAP = 10;
+
+    @Test
+    public void matchesSinglePass() {
+        Random random = new Random(17);
+        int[] argb = new int[WIDTH * HEIGHT];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = random.nextInt();
+        }
+        RYBPlanes planes = new BulkRYBConverter().convertToPlanes(argb, WIDTH, HEIGHT);
+        RYBStatistics statistics = RYBStatistics.compute(planes, SIDE_HEATMAP,
+                ForkJoinPool.commonPool(), 4);
+        int cellSize = statistics.getCellSize();
+        assertEquals(11, cellSize);
+        assertEquals(10, statistics.getWidthHeatmap());
+        assertEquals(6, statistics.getHeightHeatmap());
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            int[] histogram = new int[RYBStatistics.NUM_BIN];
+            int[] sums = new int[statistics.getWidthHeatmap() * statistics.getHeightHeatmap()];
+            int[] areas = new int[sums.length];
+            for (int row = 0; row < HEIGHT; row++) {
+                for (int col = 0; col < WIDTH; col++) {
+                    int value = planes.get(channel, row, col);
+                    histogram[value]++;
+                    int i = row / cellSize * statistics.getWidthHeatmap() + col / cellSize;
+                    sums[i] += value;
+                    areas[i]++;
+                }
+            }
+            int[] heatmap = new int[sums.length];
+            for (int i = 0; i < sums.length; i++) {
+                heatmap[i] = Math.round((float) sums[i] / areas[i]);
+            }
+            assertArrayEquals(histogram, statistics.getHistogram(channel));
+            assertArrayEquals(heatmap, statistics.getHeatmap(channel));
+        }
+    }
+
+    @Test
+    public void countsUniformPainting() {
+        int[] argb = new int[WIDTH * HEIGHT];
+        Arrays.fill(argb, 0xFF00FF00); // RYB 0, 255, 255
+        RYBStatistics statistics = RYBStatistics.compute(
+                new BulkRYBConverter().convertToPlanes(argb, WIDTH, HEIGHT));
+        assertEquals(WIDTH * HEIGHT, statistics.getHistogram(RYBConverter.iRed)[0]);
+        assertEquals(WIDTH * HEIGHT, statistics.getMaxCount(RYBConverter.iYellow));
+        assertEquals(255, statistics.getHeatmap(RYBConverter.iBlue)[0]);
+    }
+}
@@ -0,0 +1,55 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.benchmark;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ArrayPixelSource;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.BoxFilter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.BulkRYBConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.LineProfiles;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBPlanes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removing the illumination of the RYB planes of a painting, which should take about as long for
+ * any side of the square, where the script's convolution grows with its area.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoxFilterBenchmark {
+    @Param({"1920x1080", "4000x3000"})
+    public String size;
+
+    @Param({"3", "15", "63", "255"})
+    public int side;
+
+    private RYBPlanes planes;
+    private final BoxFilter filter = new BoxFilter();
+
+    @Setup
+    public void setUp() {
+        int[] dimensions = Images.parseSize(size);
+        int width = dimensions[0], height = dimensions[1];
+        ArrayPixelSource source = new ArrayPixelSource(Images.makePainting(width, height, 1), width, height);
+        planes = LineProfiles.getPlanes(source, new BulkRYBConverter());
+    }
+
+    @Benchmark
+    public RYBPlanes removeIllumination() {
+        return filter.removeIllumination(planes, side);
+    }
+}
@@ -0,0 +1,91 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.benchmark;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBLut;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-color cost of the conversions, over colors of a painting rather than a single one the JIT
+ * could fold. The lookup tables are built in the temp dir on the first run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConverterBenchmark {
+    private static final int NUM_COLOR = 4096;
+
+    private int[] argb;
+    private int[] aryb;
+    private RYBLut lut, lut565;
+
+    @Setup
+    public void setUp() throws IOException {
+        File dir = new File(System.getProperty("java.io.tmpdir"));
+        lut = RYBLut.load(dir, RYBLut.Precision.FULL);
+        lut565 = RYBLut.load(dir, RYBLut.Precision.QUANTIZED_565);
+        argb = Images.makePainting(64, NUM_COLOR / 64, 1);
+        aryb = new int[NUM_COLOR];
+        for (int i = 0; i < NUM_COLOR; i++) {
+            aryb[i] = RYBConverter.getRYB(argb[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_COLOR)
+    public void getRYB(Blackhole blackhole) {
+        for (int color : argb) {
+            blackhole.consume(RYBConverter.getRYB(color));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_COLOR)
+    public void getRYBLut(Blackhole blackhole) {
+        for (int color : argb) {
+            blackhole.consume(lut.getRYB(color));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_COLOR)
+    public void getRYBLut565(Blackhole blackhole) {
+        for (int color : argb) {
+            blackhole.consume(lut565.getRYB(color));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_COLOR)
+    public void getRYBChannel(Blackhole blackhole) {
+        for (int color : argb) {
+            blackhole.consume(RYBConverter.getRYBChannel(color, RYBConverter.iYellow));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_COLOR)
+    public void getRGB(Blackhole blackhole) {
+        for (int color : aryb) {
+            blackhole.consume(RYBConverter.getRGB(color));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.benchmark;
+
+import java.util.Random;
+
+/**
+ * Stand-ins for the paintings, so results don't depend on image files.
+ */
+final class Images {
+    private Images() {}
+
+    // Smooth gradients with noise on top, opaque, 0xAARRGGBB in row-major order
+    static int[] makePainting(int width, int height, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[width * height];
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                int red = clamp(255 * col / width + random.nextInt(32) - 16);
+                int green = clamp(255 * row / height + random.nextInt(32) - 16);
+                int blue = clamp(255 - 255 * (col + row) / (width + height) + random.nextInt(32) - 16);
+                pixels[row * width + col] = 0xFF000000 | red << 16 | green << 8 | blue;
+            }
+        }
+        return pixels;
+    }
+
+    // "640x480" to {640, 480}
+    static int[] parseSize(String size) {
+        String[] parts = size.split("x");
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
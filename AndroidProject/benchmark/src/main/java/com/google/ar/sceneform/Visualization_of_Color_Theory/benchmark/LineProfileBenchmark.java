@@ -0,0 +1,59 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.benchmark;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ArrayPixelSource;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ColorConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.LineProfiles;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.PixelSource;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracting one row or column profile from the pixels, as a slider move does without planes
+ * converted beforehand.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LineProfileBenchmark {
+    @Param({"640x480", "1920x1080", "4096x3072"})
+    public String size;
+
+    @Param({"true", "false"})
+    public boolean isRow;
+
+    private PixelSource source;
+    private int noLine;
+
+    @Setup
+    public void setUp() {
+        int[] wh = Images.parseSize(size);
+        source = new ArrayPixelSource(Images.makePainting(wh[0], wh[1], 1), wh[0], wh[1]);
+        noLine = (isRow ? wh[1] : wh[0]) / 2;
+    }
+
+    @Benchmark
+    public int[] getLine() {
+        return LineProfiles.getLine(source, isRow, noLine, RYBConverter.iYellow, ColorConverter.DIRECT);
+    }
+
+    @Benchmark
+    public int[][] getLinesAllChannels() {
+        return LineProfiles.getLinesAllChannels(source, isRow, noLine, ColorConverter.DIRECT);
+    }
+}
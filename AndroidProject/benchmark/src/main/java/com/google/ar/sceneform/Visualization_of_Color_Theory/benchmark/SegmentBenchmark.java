@@ -0,0 +1,60 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.benchmark;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ArrayPixelSource;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.BulkRYBConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.LineProfiles;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBIntegralImage;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBPlanes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Averaging a row into segments of unit pixels, by a pass over the line and out of the summed-area
+ * table, across the range of the unit slider.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SegmentBenchmark {
+    private static final int WIDTH = 1920, HEIGHT = 1080;
+
+    @Param({"0", "1", "8", "64", "200"})
+    public int unit;
+
+    private int[] line;
+    private RYBIntegralImage integralImage;
+
+    @Setup
+    public void setUp() {
+        ArrayPixelSource source = new ArrayPixelSource(Images.makePainting(WIDTH, HEIGHT, 1), WIDTH, HEIGHT);
+        RYBPlanes planes = LineProfiles.getPlanes(source, new BulkRYBConverter());
+        integralImage = planes.getIntegralImage();
+        line = planes.getRow(RYBConverter.iYellow, HEIGHT / 2, new int[WIDTH]);
+    }
+
+    @Benchmark
+    public int[] segmentLine() {
+        return LineProfiles.segmentLine(line, unit);
+    }
+
+    @Benchmark
+    public int[] getSegmentedLine() {
+        return integralImage.getSegmentedLine(true, HEIGHT / 2, RYBConverter.iYellow, unit);
+    }
+}
@@ -0,0 +1,439 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.converter;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.BoxFilter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.BulkRYBConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ChannelFilter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ColorConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBPlanes;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBPlanesStore;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Writes the channel images of every painting in a directory, the same ones
+ * color_system_converter.py writes, as PNG next to a manifest.csv of what was written:
+ *
+ * <pre>
+ *     name_R.png,   name_Y.png,   name_B.png     one RYB channel, in its color
+ *     name_R_L.png, name_Y_L.png, name_B_L.png   one RYB channel, in grayscale
+ *     name_G.png,   name_O.png,   name_P.png     mix of the two other channels
+ * </pre>
+ *
+ * <p>Paintings are converted a few at a time, each split into bands of rows over the common
+ * ForkJoinPool. Each is held as about BYTES_PIXEL bytes a pixel while converted, and no more
+ * paintings are started than fit the memory budget, other than one at a time.
+ *
+ * <p>With --planes, the RYB planes of each painting are also stored as the app keeps them, in
+ * planes/ of the output directory, converted a tile at a time. They can be pushed to the app's
+ * cache/planes/ so paintings too large to convert on the device are read from there.
+ *
+ * <p>With --illumination K, the grayscale levels are also written with the illumination removed
+ * as remove_illumination() of image_factory.py does with a K x K kernel, as name_R_I.png,
+ * name_Y_I.png and name_B_I.png.
+ *
+ * <p>Pixels are converted with VectorRYBConverter when it was built in and the runtime has the
+ * Vector API, with the same results, else with RYBConverter. --scalar keeps to RYBConverter.
+ *
+ * <p>The outputs are the app's, not a byte for byte copy of the PNGs committed next to the
+ * script, for two reasons. The RYB conversion is steep in places: halving green and blue once
+ * both are nonzero, then normalizing, so an RGB level or two apart can move a channel by tens.
+ * <ul>
+ *     <li>JPEG decoding: the PNGs come from a decoder that upsamples 4:2:0 chroma by a scaled
+ *     16x16 IDCT, as libjpeg 9 does, where ImageIO and Android's decoder interpolate it. Paintings
+ *     with subsampled chroma, Still Life among them, differ in about a third of the pixels, by
+ *     up to a hundred levels on edges. Rebuilding its chroma that way matches 99% of them.
+ *     <li>Precision: RYBConverter works in float, the script in double. Where the result is a
+ *     whole number, the two can truncate a level apart, as in over ten thousand pixels of
+ *     Reflection and a few dozen of Forest, both with full resolution chroma.
+ * </ul>
+ *
+ * <p>Usage: {@code BatchConverter [--jobs N] [--memory-mb M] [--planes] [--illumination K]
+ * [--scalar] <input dir> <output dir>}
+ */
+public class BatchConverter {
+    // Tags of the outputs, as file name suffixes, in the order of the filters and channels
+    private static final String[] TAGS_FILTER = new String[ChannelFilter.NUM_FILTER];
+    private static final String[] TAGS_LEVEL = {"R_L", "Y_L", "B_L"};
+    private static final String[] TAGS_ILLUMINATION = {"R_I", "Y_I", "B_I"};
+    static {
+        TAGS_FILTER[ChannelFilter.iRed] = "R";
+        TAGS_FILTER[ChannelFilter.iYellow] = "Y";
+        TAGS_FILTER[ChannelFilter.iBlue] = "B";
+        TAGS_FILTER[ChannelFilter.iGreen] = "G";
+        TAGS_FILTER[ChannelFilter.iOrange] = "O";
+        TAGS_FILTER[ChannelFilter.iPurple] = "P";
+    }
+    private static final String[] EXTENSIONS_INPUT = {".jpg", ".jpeg", ".png"};
+    private static final String NAME_MANIFEST = "manifest.csv";
+    private static final String FOLDER_PLANES = "planes";
+    private static final String TAG_PLANES = "planes";
+    private static final int SIDE_TILE = 1024;
+    private static final String NAME_CONVERTER_VECTOR =
+            "com.google.ar.sceneform.Visualization_of_Color_Theory.converter.VectorRYBConverter";
+
+    // Pixels converted once, twice, the filtered copy, and the grayscale output. Removing the
+    // illumination comes before the second conversion and takes less, a plane, its row sums, output
+    private static final int BYTES_PIXEL = 4 + 4 + 4 + 1;
+    private static final int BYTES_PERMIT = 1 << 20;
+    private static final int MEMORY_MB_DEFAULT = 1024;
+
+    // Opaque 0x00RRGGBB, as the script writes RGB images
+    private static final DirectColorModel MODEL_RGB = new DirectColorModel(24, 0xFF0000, 0xFF00, 0xFF);
+
+    private final File dirOutput;
+    private final RYBPlanesStore storePlanes; // Null unless planes are stored
+    private final ColorConverter converter;
+    private final int sideIllumination; // 0 unless illumination is removed
+    private final Semaphore memory;
+    private final int numPermits;
+
+    private static class Output {
+        final String source, output, tag;
+        final int width, height;
+
+        Output(String source, String output, String tag, int width, int height) {
+            this.source = source;
+            this.output = output;
+            this.tag = tag;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    BatchConverter(File dirOutput, int memoryMb, boolean isStoringPlanes, ColorConverter converter,
+                   int sideIllumination) {
+        this.dirOutput = dirOutput;
+        storePlanes = isStoringPlanes ? new RYBPlanesStore(new File(dirOutput, FOLDER_PLANES)) : null;
+        this.converter = converter;
+        this.sideIllumination = sideIllumination;
+        numPermits = Math.max(1, memoryMb);
+        memory = new Semaphore(numPermits);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int numJobs = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int memoryMb = MEMORY_MB_DEFAULT;
+        boolean isStoringPlanes = false;
+        boolean isScalar = false;
+        int sideIllumination = 0;
+        List<String> paths = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--jobs":
+                        numJobs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--memory-mb":
+                        memoryMb = Integer.parseInt(args[++i]);
+                        break;
+                    case "--planes":
+                        isStoringPlanes = true;
+                        break;
+                    case "--illumination":
+                        sideIllumination = Integer.parseInt(args[++i]);
+                        if (sideIllumination < 1 || sideIllumination > BoxFilter.MAX_SIDE) {
+                            throw new NumberFormatException("Side out of range: " + sideIllumination);
+                        }
+                        break;
+                    case "--scalar":
+                        isScalar = true;
+                        break;
+                    default:
+                        paths.add(args[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            paths.clear();
+        }
+        if (paths.size() != 2 || numJobs < 1 || memoryMb < 1) {
+            System.err.println("Usage: BatchConverter [--jobs N] [--memory-mb M] [--planes] "
+                    + "[--illumination K] [--scalar] <input dir> <output dir>");
+            System.exit(2);
+        }
+        File dirInput = new File(paths.get(0));
+        File dirOutput = new File(paths.get(1));
+        if (!dirInput.isDirectory()) {
+            System.err.println("Not a directory: " + dirInput);
+            System.exit(2);
+        }
+        if (!dirOutput.isDirectory() && !dirOutput.mkdirs()) {
+            System.err.println("Could not create " + dirOutput);
+            System.exit(1);
+        }
+        ColorConverter converter = isScalar ? ColorConverter.DIRECT : getConverter();
+        System.out.println("Converting with the "
+                + (converter == ColorConverter.DIRECT ? "scalar converter" : converter));
+        boolean isDone = new BatchConverter(dirOutput, memoryMb, isStoringPlanes, converter,
+                sideIllumination).convertAll(getPaintings(dirInput), numJobs);
+        System.exit(isDone ? 0 : 1);
+    }
+
+    /**
+     * VectorRYBConverter if it was built in and can run, found by name as it is compiled apart, for a
+     * newer JDK, else RYBConverter.
+     */
+    static ColorConverter getConverter() {
+        try {
+            return (ColorConverter) Class.forName(NAME_CONVERTER_VECTOR).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not built in, a runtime without jdk.incubator.vector, or vectors too narrow
+            return ColorConverter.DIRECT;
+        }
+    }
+
+    /**
+     * Converts the paintings, numJobs at a time at most, and writes the manifest of all outputs.
+     *
+     * @return whether every painting was converted
+     */
+    boolean convertAll(List<File> paintings, int numJobs) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(numJobs);
+        List<Future<List<Output>>> futures = new ArrayList<>();
+        for (File painting : paintings) {
+            futures.add(executor.submit(() -> convert(painting)));
+        }
+        executor.shutdown();
+
+        boolean isDone = true;
+        List<Output> outputs = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                outputs.addAll(futures.get(i).get());
+            } catch (ExecutionException e) {
+                System.err.println("Could not convert " + paintings.get(i) + ": " + e.getCause());
+                isDone = false;
+            }
+        }
+        try {
+            writeManifest(outputs);
+        } catch (IOException e) {
+            System.err.println("Could not write the manifest: " + e);
+            isDone = false;
+        }
+        System.out.println(outputs.size() + " images written from " + paintings.size() + " paintings");
+        return isDone;
+    }
+
+    private List<Output> convert(File painting) throws IOException, InterruptedException {
+        List<Output> outputs = new ArrayList<>();
+        if (storePlanes != null) { // Takes a tile of memory, not counted
+            outputs.add(writePlanes(painting));
+        }
+        int[] size = getSize(painting);
+        int width = size[0], height = size[1];
+        // A painting over the whole budget still runs, on its own
+        int permits = (int) Math.min(numPermits,
+                ((long) BYTES_PIXEL * width * height + BYTES_PERMIT - 1) / BYTES_PERMIT);
+        memory.acquire(permits);
+        try {
+            long timeStart = System.nanoTime();
+            outputs.addAll(convert(painting, width, height));
+            System.out.printf(Locale.ROOT, "%s: %dx%d in %d ms%n", painting.getName(), width, height,
+                    (System.nanoTime() - timeStart) / 1_000_000);
+            return outputs;
+        } finally {
+            memory.release(permits);
+        }
+    }
+
+    private List<Output> convert(File painting, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(painting);
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            throw new IOException("Could not decode " + painting);
+        }
+        int[] rybOnce = image.getRGB(0, 0, width, height, null, 0, width); // Converted in place
+        image = null; // Decoded copy no longer needed
+
+        String name = getBaseName(painting.getName());
+        List<Output> outputs = new ArrayList<>();
+        BulkRYBConverter bulk = new BulkRYBConverter(ForkJoinPool.commonPool(), converter);
+        bulk.convertInPlace(rybOnce, width, height);
+
+        // Grayscale levels of each channel, converted once
+        BufferedImage imageLevel = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        WritableRaster rasterLevel = imageLevel.getRaster();
+        int[] row = new int[width];
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0, i = y * width; x < width; x++, i++) {
+                    row[x] = RYBConverter.channel(rybOnce[i], channel);
+                }
+                rasterLevel.setSamples(0, y, width, 1, 0, row);
+            }
+            outputs.add(write(imageLevel, painting, name, TAGS_LEVEL[channel]));
+        }
+        if (sideIllumination > 0) {
+            outputs.addAll(writeIllumination(rybOnce, width, height, imageLevel, painting, name));
+        }
+        imageLevel = null;
+
+        // The filters use the colors converted twice, as the script converts the converted image
+        int[] ryb = rybOnce.clone();
+        bulk.convertInPlace(ryb, width, height);
+
+        // Filtered colors, each into the same buffer, wrapped by the image written
+        int[] filtered = new int[width * height];
+        WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(filtered, filtered.length),
+                width, height, width, MODEL_RGB.getMasks(), null);
+        BufferedImage imageFiltered = new BufferedImage(MODEL_RGB, raster, false, null);
+        for (int iFilter = 0; iFilter < ChannelFilter.NUM_FILTER; iFilter++) {
+            ChannelFilter.apply(rybOnce, ryb, filtered, iFilter);
+            outputs.add(write(imageFiltered, painting, name, TAGS_FILTER[iFilter]));
+        }
+        return outputs;
+    }
+
+    // Levels of each channel less the average of the square around each pixel
+    private List<Output> writeIllumination(int[] ryb, int width, int height, BufferedImage imageLevel,
+                                           File painting, String name) throws IOException {
+        List<Output> outputs = new ArrayList<>();
+        BoxFilter filter = new BoxFilter();
+        WritableRaster rasterLevel = imageLevel.getRaster();
+        byte[] plane = new byte[width * height];
+        int[] row = new int[width];
+        for (int channel = 0; channel < RYBPlanes.NUM_CHANNEL; channel++) {
+            for (int i = 0; i < plane.length; i++) {
+                plane[i] = (byte) RYBConverter.channel(ryb[i], channel);
+            }
+            byte[] removed = filter.removeIllumination(plane, width, height, sideIllumination);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0, i = y * width; x < width; x++, i++) {
+                    row[x] = removed[i] & 0xFF;
+                }
+                rasterLevel.setSamples(0, y, width, 1, 0, row);
+            }
+            outputs.add(write(imageLevel, painting, name, TAGS_ILLUMINATION[channel]));
+        }
+        return outputs;
+    }
+
+    // Keyed by the hash of the file, as the app keys the planes of its assets
+    private Output writePlanes(File painting) throws IOException {
+        String key;
+        try (InputStream is = new FileInputStream(painting)) {
+            key = RYBPlanesStore.getHash(is);
+        }
+        int width, height;
+        try (ImageIORegionSource source = new ImageIORegionSource(painting)) {
+            width = source.getWidth();
+            height = source.getHeight();
+            storePlanes.writeTiled(key, source, SIDE_TILE, converter);
+        }
+        return new Output(painting.getName(), FOLDER_PLANES + "/" + key + RYBPlanesStore.EXTENSION,
+                TAG_PLANES, width, height);
+    }
+
+    private Output write(BufferedImage image, File painting, String name, String tag) throws IOException {
+        File file = new File(dirOutput, name + "_" + tag + ".png");
+        if (!ImageIO.write(image, "png", file)) {
+            throw new IOException("No PNG writer for " + file);
+        }
+        return new Output(painting.getName(), file.getName(), tag, image.getWidth(), image.getHeight());
+    }
+
+    private void writeManifest(List<Output> outputs) throws IOException {
+        outputs.sort((o1, o2) -> o1.output.compareTo(o2.output));
+        try (PrintWriter writer = new PrintWriter(new File(dirOutput, NAME_MANIFEST), "UTF-8")) {
+            writer.println("source,output,tag,width,height");
+            for (Output output : outputs) {
+                writer.println(quote(output.source) + "," + quote(output.output) + "," + output.tag + ","
+                        + output.width + "," + output.height);
+            }
+        }
+    }
+
+    // {width, height} from the header, without decoding the pixels
+    private static int[] getSize(File painting) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(painting)) {
+            Iterator<ImageReader> readers = stream != null ? ImageIO.getImageReaders(stream) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("No reader for " + painting);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream);
+                return new int[] {reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Images of the directory, except outputs of an earlier run into the same one
+    static List<File> getPaintings(File dirInput) {
+        File[] files = dirInput.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        List<File> paintings = new ArrayList<>();
+        for (File file : files) {
+            if (file.isFile() && hasExtension(file.getName(), EXTENSIONS_INPUT) && !isOutput(file.getName())) {
+                paintings.add(file);
+            }
+        }
+        Collections.sort(paintings);
+        return paintings;
+    }
+
+    private static boolean isOutput(String fileName) {
+        String name = getBaseName(fileName);
+        List<String> tags = new ArrayList<>(Arrays.asList(TAGS_FILTER));
+        tags.addAll(Arrays.asList(TAGS_LEVEL));
+        tags.addAll(Arrays.asList(TAGS_ILLUMINATION));
+        for (String tag : tags) {
+            if (name.endsWith("_" + tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasExtension(String fileName, String[] extensions) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : extensions) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getBaseName(String fileName) {
+        int iDot = fileName.lastIndexOf('.');
+        return iDot > 0 ? fileName.substring(0, iDot) : fileName;
+    }
+
+    // File names may hold commas, e.g. "Still Life, 1890.jpg"
+    private static String quote(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,71 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.converter;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.PixelSource;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Image decoded a region at a time with ImageIO, the desktop counterpart of RegionPixelSource. Only
+ * the region is kept, though formats without random access such as JPEG are decoded from the top
+ * down to it on each read. Not thread safe.
+ */
+class ImageIORegionSource implements PixelSource, Closeable {
+    private final ImageInputStream stream;
+    private final ImageReader reader;
+    private final int width, height;
+
+    ImageIORegionSource(File file) throws IOException {
+        stream = ImageIO.createImageInputStream(file);
+        Iterator<ImageReader> readers = stream != null ? ImageIO.getImageReaders(stream) : null;
+        if (readers == null || !readers.hasNext()) {
+            if (stream != null) {
+                stream.close();
+            }
+            throw new IOException("No reader for " + file);
+        }
+        reader = readers.next();
+        reader.setInput(stream);
+        width = reader.getWidth(0);
+        height = reader.getHeight(0);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void getPixels(int[] pixels, int offset, int stride, int x, int y, int width, int height) {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle(x, y, width, height));
+        BufferedImage region;
+        try {
+            region = reader.read(0, param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        region.getRGB(0, 0, width, height, pixels, offset, stride);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.dispose();
+        stream.close();
+    }
+}
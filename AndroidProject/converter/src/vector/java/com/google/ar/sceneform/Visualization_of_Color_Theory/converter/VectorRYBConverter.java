@@ -0,0 +1,150 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.converter;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ColorConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBConverter;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * RYBConverter.getRYB(int) over as many pixels at once as the CPU's vectors hold, with the Vector
+ * API of JDK 16 and later. Runs of pixels are split into planes of float red, green and blue, which
+ * are converted a vector at a time, each branch of the scalar math becoming a mask, then packed
+ * back. The three passes are kept apart as C2 stops inlining the vector calls of a single larger
+ * loop, and they then run slower than the scalar code.
+ *
+ * <p>The results are bit identical to RYBConverter: the float operations are the same, in the same
+ * order. The lanewise min and max only differ from its min() and max() on NaN and -0, which never
+ * occur, and the branches not taken multiply by 1 instead, which is exact. Colors past the last
+ * full vector are converted by RYBConverter itself.
+ *
+ * <p>Only built and loaded when the runtime has jdk.incubator.vector, see BatchConverter.
+ */
+public class VectorRYBConverter implements ColorConverter {
+    private static final VectorSpecies<Integer> SPECIES_INT = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> SPECIES_FLOAT = FloatVector.SPECIES_PREFERRED;
+    private static final int MIN_LANES = 4; // Narrower is no faster than the scalar loop
+    private static final FloatVector ONE = FloatVector.broadcast(SPECIES_FLOAT, 1f);
+    private static final float TWO_POW_23 = 8388608f;
+    private static final int BITS_TWO_POW_23 = Float.floatToRawIntBits(TWO_POW_23);
+    private static final int LENGTH_CHUNK = 1024; // Pixels a pass, so the planes stay in cache
+
+    // Scratch planes of a chunk, per thread as bands are converted in parallel
+    private static final ThreadLocal<float[][]> PLANES =
+            ThreadLocal.withInitial(() -> new float[3][LENGTH_CHUNK]);
+
+    public VectorRYBConverter() {
+        if (SPECIES_INT.length() < MIN_LANES || SPECIES_INT.length() != SPECIES_FLOAT.length()) {
+            throw new UnsupportedOperationException("No vectors of " + MIN_LANES + " lanes");
+        }
+    }
+
+    @Override
+    public int getRYB(int argb) {
+        return RYBConverter.getRYB(argb);
+    }
+
+    @Override
+    public void getRYB(int[] src, int srcOffset, int[] dst, int dstOffset, int length) {
+        float[][] planes = PLANES.get();
+        int done = 0;
+        for (int lengthVectors = SPECIES_INT.loopBound(length); done < lengthVectors; ) {
+            int lengthChunk = Math.min(LENGTH_CHUNK, lengthVectors - done);
+            unpack(src, srcOffset + done, lengthChunk, planes);
+            convert(planes, lengthChunk);
+            pack(src, srcOffset + done, lengthChunk, planes, dst, dstOffset + done);
+            done += lengthChunk;
+        }
+        for (int i = done; i < length; i++) {
+            dst[dstOffset + i] = RYBConverter.getRYB(src[srcOffset + i]);
+        }
+    }
+
+    // Red, green and blue of the pixels into their planes
+    private static void unpack(int[] src, int offset, int length, float[][] planes) {
+        float[] red = planes[0], green = planes[1], blue = planes[2];
+        for (int i = 0; i < length; i += SPECIES_INT.length()) {
+            IntVector argb = IntVector.fromArray(SPECIES_INT, src, offset + i);
+            toFloat(argb.lanewise(VectorOperators.LSHR, 16).and(0xFF)).intoArray(red, i);
+            toFloat(argb.lanewise(VectorOperators.LSHR, 8).and(0xFF)).intoArray(green, i);
+            toFloat(argb.and(0xFF)).intoArray(blue, i);
+        }
+    }
+
+    // RGB planes to RYB in place, before truncation, the math of RYBConverter.getRYB(int)
+    private static void convert(float[][] planes, int length) {
+        float[] reds = planes[0], greens = planes[1], blues = planes[2];
+        for (int i = 0; i < length; i += SPECIES_FLOAT.length()) {
+            FloatVector red = FloatVector.fromArray(SPECIES_FLOAT, reds, i);
+            FloatVector green = FloatVector.fromArray(SPECIES_FLOAT, greens, i);
+            FloatVector blue = FloatVector.fromArray(SPECIES_FLOAT, blues, i);
+            FloatVector white = red.min(green).min(blue);
+
+            red = red.sub(white); // Remove white
+            green = green.sub(white);
+            blue = blue.sub(white);
+
+            FloatVector magnitudeRGB = red.max(green).max(blue);
+
+            // Yellow is mixed with red and green in RGB
+            FloatVector yellow = red.min(green);
+            red = red.sub(yellow);
+            green = green.sub(yellow);
+
+            VectorMask<Float> isHalved = green.compare(VectorOperators.NE, 0f)
+                    .and(blue.compare(VectorOperators.NE, 0f));
+            FloatVector half = ONE.blend(0.5f, isHalved);
+            green = green.mul(half);
+            blue = blue.mul(half);
+
+            yellow = yellow.add(green); // Green is mixed with yellow and blue in RYB
+            blue = blue.add(green);
+
+            FloatVector magnitudeRYB = red.max(yellow).max(blue); // Normalize
+            VectorMask<Float> isScaled = magnitudeRYB.compare(VectorOperators.NE, 0f);
+            FloatVector ratio = ONE.blend(magnitudeRGB.div(magnitudeRYB), isScaled);
+
+            red.mul(ratio).add(white).intoArray(reds, i);
+            yellow.mul(ratio).add(white).intoArray(greens, i); // Yellow takes the green plane
+            blue.mul(ratio).add(white).intoArray(blues, i);
+        }
+    }
+
+    // RYB planes truncated and packed with the alpha of the pixels
+    private static void pack(int[] src, int srcOffset, int length, float[][] planes, int[] dst,
+                             int dstOffset) {
+        float[] red = planes[0], yellow = planes[1], blue = planes[2];
+        for (int i = 0; i < length; i += SPECIES_INT.length()) {
+            IntVector.fromArray(SPECIES_INT, src, srcOffset + i).and(0xFF000000)
+                    .or(toInt(FloatVector.fromArray(SPECIES_FLOAT, red, i))
+                            .lanewise(VectorOperators.LSHL, 16))
+                    .or(toInt(FloatVector.fromArray(SPECIES_FLOAT, yellow, i))
+                            .lanewise(VectorOperators.LSHL, 8))
+                    .or(toInt(FloatVector.fromArray(SPECIES_FLOAT, blue, i)))
+                    .intoArray(dst, dstOffset + i);
+        }
+    }
+
+    private static FloatVector toFloat(IntVector v) {
+        return (FloatVector) v.convert(VectorOperators.I2F, 0);
+    }
+
+    /*
+     * Truncates as the (int) cast does, for the 0 to 255 of the channels. JDK 17 doesn't compile F2I
+     * to vector instructions on x86, so adding 2^23 rounds to the nearest integer instead, one less
+     * if that is over, and the low bits of the float plus 2^23 are the integer. All of it is exact.
+     */
+    private static IntVector toInt(FloatVector v) {
+        FloatVector rounded = v.add(TWO_POW_23).sub(TWO_POW_23);
+        FloatVector truncated = rounded.sub(1f, rounded.compare(VectorOperators.GT, v));
+        return truncated.add(TWO_POW_23).reinterpretAsInts().sub(BITS_TWO_POW_23);
+    }
+
+    @Override
+    public String toString() {
+        return "vector converter, " + SPECIES_INT.length() + " lanes";
+    }
+}
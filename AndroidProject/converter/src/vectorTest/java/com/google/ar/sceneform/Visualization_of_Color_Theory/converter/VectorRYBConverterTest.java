@@ -0,0 +1,56 @@
+package com.google.ar.sceneform.Visualization_of_Color_Theory.converter;
+
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.ColorConverter;
+import com.google.ar.sceneform.Visualization_of_Color_Theory.helpers.RYBConverter;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class VectorRYBConverterTest {
+    private final ColorConverter converter = new VectorRYBConverter();
+
+    // Bit identical to RYBConverter on every 24-bit color, a chunk of the vector passes at a time
+    @Test
+    public void matchesConverterOnAllColors() {
+        int length = 1 << 16;
+        int[] argb = new int[length], aryb = new int[length];
+        for (int start = 0; start < 1 << 24; start += length) {
+            for (int i = 0; i < length; i++) {
+                argb[i] = 0xFF000000 | (start + i);
+            }
+            converter.getRYB(argb, 0, aryb, 0, length);
+            for (int i = 0; i < length; i++) {
+                if (aryb[i] != RYBConverter.getRYB(argb[i])) {
+                    assertEquals(Integer.toHexString(argb[i]), RYBConverter.getRYB(argb[i]), aryb[i]);
+                }
+            }
+        }
+    }
+
+    // Offsets and lengths not multiples of the lanes, so the scalar tail runs, and in place
+    @Test
+    public void convertsTailsAndInPlace() {
+        Random random = new Random(23);
+        int[] argb = new int[3001];
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = random.nextInt(); // Any alpha
+        }
+        for (int length : new int[] {0, 1, 3, 17, 1023, 1025, 2999}) {
+            int[] aryb = argb.clone();
+            converter.getRYB(aryb, 1, aryb, 1, length);
+            assertEquals(argb[0], aryb[0]);
+            for (int i = 1; i <= length; i++) {
+                assertEquals(RYBConverter.getRYB(argb[i]), aryb[i]);
+            }
+            assertEquals(argb[length + 1], aryb[length + 1]);
+        }
+    }
+
+    @Test
+    public void convertsSingleColors() {
+        assertEquals(RYBConverter.getRYB(0x8029CCEF), converter.getRYB(0x8029CCEF));
+    }
+}